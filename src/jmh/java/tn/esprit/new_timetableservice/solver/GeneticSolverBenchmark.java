@@ -0,0 +1,56 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full single-population GA run per invocation with a fixed seed and generation count, without
+ * the final polish, so the time measured is the evolution loop alone. Stagnation stops are off so
+ * every run does the same amount of work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeneticSolverBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    @Param({"50"})
+    private int generations;
+
+    private ProblemSnapshot snapshot;
+    private GeneticSolver solver;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = SchoolInstances.snapshot(size);
+        pool = new ForkJoinPool(1);
+        solver = new GeneticSolver();
+        ReflectionTestUtils.setField(solver, "populationSize", 180);
+        ReflectionTestUtils.setField(solver, "mutationRate", 0.1);
+        ReflectionTestUtils.setField(solver, "maxGenerations", generations);
+        ReflectionTestUtils.setField(solver, "islandCount", 1);
+        ReflectionTestUtils.setField(solver, "seedingFraction", 0.2);
+        ReflectionTestUtils.setField(solver, "polishEnabled", false);
+        ReflectionTestUtils.setField(solver, "stagnationGenerations", 0);
+        ReflectionTestUtils.setField(solver, "solverPool", pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SolverResult optimizeTimetable() {
+        return solver.solve(snapshot, new SolverBudget(TimeUnit.MINUTES.toMillis(10), 7L), new SolverProgress());
+    }
+}
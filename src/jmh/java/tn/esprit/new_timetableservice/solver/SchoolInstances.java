@@ -0,0 +1,39 @@
+package tn.esprit.new_timetableservice.solver;
+
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolGenerator;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolSpec;
+
+/**
+ * Fixed synthetic schools for the benchmarks. Generated in memory from a constant seed, so every
+ * run and every fork measures the same instance.
+ */
+final class SchoolInstances {
+
+    private SchoolInstances() {
+    }
+
+    // small: 12 classes, medium: 50 classes, large: 160 classes; 30 weekly slots each.
+    // tight is medium with 95% of capacity needed and teachers missing a tenth of their slots
+    static ProblemSnapshot snapshot(String size) {
+        return switch (size) {
+            case "small" -> build(4, 3, 8, 0.8, 1.0);
+            case "medium" -> build(10, 5, 10, 0.8, 1.0);
+            case "large" -> build(20, 8, 12, 0.8, 1.0);
+            case "tight" -> build(10, 5, 10, 0.95, 0.9);
+            default -> throw new IllegalArgumentException("Unknown instance size: " + size);
+        };
+    }
+
+    private static ProblemSnapshot build(int programs, int classesPerProgram, int subjectsPerProgram,
+                                         double tightness, double availability) {
+        SyntheticSchoolSpec spec = new SyntheticSchoolSpec();
+        spec.setName("Benchmark");
+        spec.setPrograms(programs);
+        spec.setClassesPerProgram(classesPerProgram);
+        spec.setSubjectsPerProgram(subjectsPerProgram);
+        spec.setTightness(tightness);
+        spec.setAvailability(availability);
+        spec.setSeed(42);
+        return SyntheticSchoolGenerator.generate(spec).toSnapshot();
+    }
+}
@@ -0,0 +1,88 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the operations the genetic algorithm runs per individual and generation. Run with
+ * the GC profiler (the profile's default) to get the allocation rate per operation as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverOperationsBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private ProblemSnapshot snapshot;
+    private Workspace workspace;
+    private SplittableRandom random;
+    private GeneticTimetable parent1;
+    private GeneticTimetable parent2;
+    private GeneticTimetable child;
+    private GeneticTimetable empty;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = SchoolInstances.snapshot(size);
+        workspace = new Workspace(snapshot);
+        random = new SplittableRandom(7);
+        parent1 = randomTimetable();
+        parent2 = randomTimetable();
+        child = new GeneticTimetable(snapshot);
+        child.copyFrom(parent1);
+        empty = new GeneticTimetable(snapshot);
+    }
+
+    private GeneticTimetable randomTimetable() {
+        GeneticTimetable timetable = new GeneticTimetable(snapshot);
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            workspace.placeRandomly(timetable, lesson, random);
+        }
+        return timetable;
+    }
+
+    @Benchmark
+    public HardSoftScore calculateScore() {
+        return FitnessCheck.calculateScore(parent1, snapshot);
+    }
+
+    @Benchmark
+    public HardSoftScore crossover() {
+        GeneticSolver.crossover(parent1, parent2, child, snapshot, random);
+        return child.score();
+    }
+
+    // The chromosome keeps drifting between invocations, like a child mutated every generation
+    @Benchmark
+    public HardSoftScore mutate() {
+        workspace.mutate(child, random);
+        return child.score();
+    }
+
+    @Benchmark
+    public void placeRandomly(Blackhole blackhole) {
+        int lesson = random.nextInt(snapshot.lessonCount());
+        empty.unassign(lesson);
+        blackhole.consume(workspace.placeRandomly(empty, lesson, random));
+    }
+
+    @Benchmark
+    public GeneticTimetable repair() {
+        return workspace.repair(parent1, random);
+    }
+
+    @Benchmark
+    public GeneticTimetable construct() {
+        empty.clear();
+        workspace.constructor().construct(empty, random);
+        return empty;
+    }
+}
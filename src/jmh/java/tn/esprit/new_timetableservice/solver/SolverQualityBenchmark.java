@@ -0,0 +1,414 @@
+package tn.esprit.new_timetableservice.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import tn.esprit.new_timetableservice.config.SolverConfig;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Quality-versus-time benchmark. Runs each solver once per seed on each benchmark instance and
+ * records the anytime curve of every run, the best hard/soft score against wall-clock time. The
+ * report gives, per solver and instance, the share of feasible runs, time-to-feasible percentiles
+ * and the distribution of final scores, in runs.csv, curves.csv, summary.csv and report.json.
+ * <p>
+ * Solvers are built by Spring from application.yml. Arguments of the form key=value override its
+ * properties, so configurations are compared by running once per configuration under its own label:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=tn.esprit.new_timetableservice.solver.SolverQualityBenchmark \
+ *     -Djmh.args="--label=pop300 --solvers=genetic --sizes=small,medium --seeds=10 --time-limit=10000 timetable.population.size=300"
+ * </pre>
+ * With --baseline=&lt;summary.csv of an earlier run&gt; the summary is compared against it, and the
+ * run exits with status 1 when a solver became less often feasible, slower to feasibility or
+ * worse in median score on an instance.
+ */
+public final class SolverQualityBenchmark {
+    private static final double[] CHECKPOINTS = {0.1, 0.25, 0.5, 1.0};
+
+    private SolverQualityBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (!arg.startsWith("--") && eq > 0) {
+                overrides.put(arg.substring(0, eq), arg.substring(eq + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --option=value or property=value, got " + arg);
+            }
+        }
+        String label = options.getOrDefault("label", "run");
+        List<String> solverNames = List.of(options.getOrDefault("solvers", "genetic").split(","));
+        List<String> sizes = List.of(options.getOrDefault("sizes", "small,medium").split(","));
+        int seeds = Integer.parseInt(options.getOrDefault("seeds", "10"));
+        long firstSeed = Long.parseLong(options.getOrDefault("first-seed", "1"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        long timeLimit = Long.parseLong(options.getOrDefault("time-limit", "10000"));
+        Path out = Paths.get(options.getOrDefault("out", "target/quality/" + label));
+
+        LoggingSystem logging = LoggingSystem.get(SolverQualityBenchmark.class.getClassLoader());
+        logging.beforeInitialize();
+        logging.setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.valueOf(options.getOrDefault("log-level", "WARN")));
+
+        List<Run> runs = new ArrayList<>();
+        try (AnnotationConfigApplicationContext context = solverContext(overrides)) {
+            for (String size : sizes) {
+                ProblemSnapshot snapshot = SchoolInstances.snapshot(size);
+                for (String name : solverNames) {
+                    TimetableSolver solver = context.getBean(name, TimetableSolver.class);
+                    // JIT warm-up on a seed outside the measured range
+                    for (int i = 0; i < warmup; i++) {
+                        run(solver, name, size, snapshot, firstSeed - 1 - i, timeLimit);
+                    }
+                    for (int i = 0; i < seeds; i++) {
+                        Run run = run(solver, name, size, snapshot, firstSeed + i, timeLimit);
+                        runs.add(run);
+                        System.out.printf("%-10s %-7s seed %-4d %s after %d ms, feasible after %s ms (%s)%n",
+                                name, size, run.seed, run.score, run.elapsedMillis,
+                                run.timeToFeasible == null ? "-" : run.timeToFeasible, run.stopReason);
+                    }
+                }
+            }
+        }
+
+        List<Summary> summaries = new ArrayList<>();
+        for (String size : sizes) {
+            for (String name : solverNames) {
+                List<Run> group = new ArrayList<>();
+                for (Run run : runs) {
+                    if (run.solver.equals(name) && run.instance.equals(size)) group.add(run);
+                }
+                summaries.add(new Summary(name, size, group, timeLimit));
+            }
+        }
+
+        Files.createDirectories(out);
+        writeRuns(out.resolve("runs.csv"), runs);
+        writeCurves(out.resolve("curves.csv"), runs);
+        writeSummary(out.resolve("summary.csv"), summaries);
+        writeJson(out.resolve("report.json"), label, options, overrides, summaries, runs);
+        System.out.println();
+        System.out.println(Files.readString(out.resolve("summary.csv")));
+        System.out.println("Report written to " + out.toAbsolutePath());
+
+        String baseline = options.get("baseline");
+        if (baseline != null) {
+            double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+            if (compare(Paths.get(baseline), summaries, tolerance) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // The solver beans and pool exactly as the service builds them, minus the web and JPA layers
+    private static AnnotationConfigApplicationContext solverContext(Map<String, Object> overrides) throws IOException {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(new ApplicationConversionService());
+        MutablePropertySources sources = context.getEnvironment().getPropertySources();
+        sources.addFirst(new MapPropertySource("benchmark", overrides));
+        for (PropertySource<?> source : new YamlPropertySourceLoader().load("application.yml", new ClassPathResource("application.yml"))) {
+            sources.addLast(source);
+        }
+        context.register(SolverConfig.class, GeneticSolver.class, AnnealingSolver.class, GreedySolver.class, PortfolioSolver.class);
+        context.refresh();
+        return context;
+    }
+
+    private static Run run(TimetableSolver solver, String name, String instance, ProblemSnapshot snapshot, long seed, long timeLimit) {
+        Curve curve = new Curve();
+        SolverProgress progress = new SolverProgress();
+        progress.setListener(curve);
+        progress.start();
+        SolverResult result = solver.solve(snapshot, new SolverBudget(timeLimit, seed), progress);
+        // Repair and polish after the last report can still improve the result
+        HardSoftScore score = result.getScore();
+        curve.add(result.getElapsedMillis(), score.hard(), score.soft());
+        return new Run(name, instance, seed, score, result.getElapsedMillis(), result.getIterations(),
+                result.getStopReason(), curve.points());
+    }
+
+    private static void writeRuns(Path file, List<Run> runs) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("solver,instance,seed,hard,soft,feasible,time_to_feasible_ms,elapsed_ms,iterations,stop_reason");
+            for (Run run : runs) {
+                writer.printf(Locale.ROOT, "%s,%s,%d,%d,%.1f,%b,%s,%d,%d,%s%n", run.solver, run.instance, run.seed,
+                        run.score.hard(), run.score.soft(), run.score.isFeasible(), csv(run.timeToFeasible),
+                        run.elapsedMillis, run.iterations, run.stopReason);
+            }
+        }
+    }
+
+    private static void writeCurves(Path file, List<Run> runs) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("solver,instance,seed,elapsed_ms,hard,soft");
+            for (Run run : runs) {
+                for (Point point : run.curve) {
+                    writer.printf(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f%n", run.solver, run.instance, run.seed,
+                            point.millis, point.hard, point.soft);
+                }
+            }
+        }
+    }
+
+    private static void writeSummary(Path file, List<Summary> summaries) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("solver,instance,runs,feasible_rate,ttf_p50_ms,ttf_p90_ms,ttf_max_ms,"
+                    + "best_hard,best_soft,median_hard,median_soft,worst_hard,worst_soft");
+            for (Summary s : summaries) {
+                writer.printf(Locale.ROOT, "%s,%s,%d,%.3f,%s,%s,%s,%d,%.6f,%d,%.6f,%d,%.6f%n", s.solver, s.instance, s.runs,
+                        s.feasibleRate, csv(s.ttfP50), csv(s.ttfP90), csv(s.ttfMax),
+                        s.best.hard(), s.best.soft(), s.median.hard(), s.median.soft(), s.worst.hard(), s.worst.soft());
+            }
+        }
+    }
+
+    private static void writeJson(Path file, String label, Map<String, String> options, Map<String, Object> overrides,
+                                  List<Summary> summaries, List<Run> runs) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("options", options);
+        report.put("overrides", overrides);
+        List<Map<String, Object>> summaryList = new ArrayList<>();
+        for (Summary s : summaries) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("solver", s.solver);
+            entry.put("instance", s.instance);
+            entry.put("runs", s.runs);
+            entry.put("feasibleRate", s.feasibleRate);
+            Map<String, Object> ttf = new LinkedHashMap<>();
+            ttf.put("p50", s.ttfP50);
+            ttf.put("p90", s.ttfP90);
+            ttf.put("max", s.ttfMax);
+            entry.put("timeToFeasibleMs", ttf);
+            Map<String, Object> finalScore = new LinkedHashMap<>();
+            finalScore.put("best", score(s.best));
+            finalScore.put("median", score(s.median));
+            finalScore.put("worst", score(s.worst));
+            entry.put("finalScore", finalScore);
+            List<Map<String, Object>> checkpoints = new ArrayList<>();
+            for (int i = 0; i < CHECKPOINTS.length; i++) {
+                Map<String, Object> checkpoint = new LinkedHashMap<>();
+                checkpoint.put("elapsedMs", s.checkpointMillis[i]);
+                checkpoint.put("medianBest", s.checkpointMedians[i] == null ? null : score(s.checkpointMedians[i]));
+                checkpoints.add(checkpoint);
+            }
+            entry.put("anytime", checkpoints);
+            summaryList.add(entry);
+        }
+        report.put("summary", summaryList);
+        List<Map<String, Object>> runList = new ArrayList<>();
+        for (Run run : runs) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("solver", run.solver);
+            entry.put("instance", run.instance);
+            entry.put("seed", run.seed);
+            entry.put("score", score(run.score));
+            entry.put("timeToFeasibleMs", run.timeToFeasible);
+            entry.put("elapsedMs", run.elapsedMillis);
+            entry.put("iterations", run.iterations);
+            entry.put("stopReason", run.stopReason);
+            List<Object[]> curve = new ArrayList<>();
+            for (Point point : run.curve) {
+                curve.add(new Object[]{point.millis, point.hard, point.soft});
+            }
+            entry.put("curve", curve);
+            runList.add(entry);
+        }
+        report.put("runs", runList);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+
+    // Counts the solver/instance pairs that regressed against the baseline summary
+    private static int compare(Path baselineFile, List<Summary> summaries, double tolerance) throws IOException {
+        Map<String, String[]> baseline = new HashMap<>();
+        List<String> lines = Files.readAllLines(baselineFile);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cells = line.split(",", -1);
+            baseline.put(cells[0] + "/" + cells[1], cells);
+        }
+        int regressions = 0;
+        System.out.println("Compared with " + baselineFile);
+        for (Summary s : summaries) {
+            String[] before = baseline.get(s.solver + "/" + s.instance);
+            if (before == null) continue;
+            List<String> findings = new ArrayList<>();
+            double feasibleBefore = Double.parseDouble(before[3]);
+            if (s.feasibleRate < feasibleBefore - 1e-9) {
+                findings.add(String.format(Locale.ROOT, "feasible rate %.3f -> %.3f", feasibleBefore, s.feasibleRate));
+            }
+            Long ttfBefore = before[4].isEmpty() ? null : Long.valueOf(before[4]);
+            if (ttfBefore != null && (s.ttfP50 == null || s.ttfP50 > ttfBefore * (1 + tolerance))) {
+                findings.add("time to feasible p50 " + ttfBefore + " -> " + (s.ttfP50 == null ? "never" : s.ttfP50) + " ms");
+            }
+            HardSoftScore medianBefore = new HardSoftScore(Integer.parseInt(before[9]), Double.parseDouble(before[10]));
+            // Soft scores went through the CSV with six decimals
+            if (s.median.compareTo(new HardSoftScore(medianBefore.hard(), medianBefore.soft() - 1e-5)) < 0) {
+                findings.add("median score " + medianBefore + " -> " + s.median);
+            }
+            regressions += findings.isEmpty() ? 0 : 1;
+            System.out.printf("%-10s %-7s %s%n", s.solver, s.instance, findings.isEmpty() ? "ok" : "REGRESSION " + findings);
+        }
+        return regressions;
+    }
+
+    private static Map<String, Object> score(HardSoftScore score) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hard", score.hard());
+        map.put("soft", score.soft());
+        return map;
+    }
+
+    private static String csv(Long value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static final class Point {
+        final long millis;
+        final int hard;
+        final double soft;
+
+        Point(long millis, int hard, double soft) {
+            this.millis = millis;
+            this.hard = hard;
+            this.soft = soft;
+        }
+    }
+
+    // Keeps the points where the lexicographic best improves; islands report from several threads
+    private static final class Curve implements SolverProgress.Listener {
+        private final List<Point> points = new ArrayList<>();
+
+        @Override
+        public void generationRecorded(SolverProgress.GenerationStats stats) {
+            // Progress carries the weighted fitness, so the soft score comes back to the nearest unit
+            int hard = -stats.getHardViolations();
+            add(stats.getElapsedMillis(), hard, stats.getBestFitness() - (double) hard * HardSoftScore.HARD_WEIGHT);
+        }
+
+        synchronized void add(long millis, int hard, double soft) {
+            Point last = points.isEmpty() ? null : points.get(points.size() - 1);
+            if (last == null || HardSoftScore.compare(hard, soft, last.hard, last.soft) > 0) {
+                points.add(new Point(Math.max(millis, last == null ? 0 : last.millis), hard, soft));
+            }
+        }
+
+        synchronized List<Point> points() {
+            return new ArrayList<>(points);
+        }
+    }
+
+    private static final class Run {
+        final String solver;
+        final String instance;
+        final long seed;
+        final HardSoftScore score;
+        final long elapsedMillis;
+        final int iterations;
+        final SolverProgress.StopReason stopReason;
+        final List<Point> curve;
+        final Long timeToFeasible;
+
+        Run(String solver, String instance, long seed, HardSoftScore score, long elapsedMillis, int iterations,
+            SolverProgress.StopReason stopReason, List<Point> curve) {
+            this.solver = solver;
+            this.instance = instance;
+            this.seed = seed;
+            this.score = score;
+            this.elapsedMillis = elapsedMillis;
+            this.iterations = iterations;
+            this.stopReason = stopReason;
+            this.curve = curve;
+            Long feasibleAt = null;
+            for (Point point : curve) {
+                if (point.hard == 0) {
+                    feasibleAt = point.millis;
+                    break;
+                }
+            }
+            this.timeToFeasible = feasibleAt;
+        }
+
+        // Best score reached by the given time, null before the first report
+        HardSoftScore bestAt(long millis) {
+            HardSoftScore best = null;
+            for (Point point : curve) {
+                if (point.millis > millis) break;
+                best = new HardSoftScore(point.hard, point.soft);
+            }
+            return best;
+        }
+    }
+
+    private static final class Summary {
+        final String solver;
+        final String instance;
+        final int runs;
+        final double feasibleRate;
+        final Long ttfP50;
+        final Long ttfP90;
+        final Long ttfMax;
+        final HardSoftScore best;
+        final HardSoftScore median;
+        final HardSoftScore worst;
+        final long[] checkpointMillis = new long[CHECKPOINTS.length];
+        final HardSoftScore[] checkpointMedians = new HardSoftScore[CHECKPOINTS.length];
+
+        Summary(String solver, String instance, List<Run> group, long timeLimit) {
+            this.solver = solver;
+            this.instance = instance;
+            this.runs = group.size();
+            // Runs that never became feasible sort last, so a percentile falling on them is unknown
+            List<Long> ttf = new ArrayList<>();
+            List<HardSoftScore> scores = new ArrayList<>();
+            for (Run run : group) {
+                ttf.add(run.timeToFeasible);
+                scores.add(run.score);
+            }
+            ttf.sort(Comparator.nullsLast(Comparator.naturalOrder()));
+            scores.sort(Comparator.reverseOrder());
+            this.feasibleRate = runs == 0 ? 0 : ttf.stream().filter(Objects::nonNull).count() / (double) runs;
+            this.ttfP50 = percentile(ttf, 0.5);
+            this.ttfP90 = percentile(ttf, 0.9);
+            this.ttfMax = percentile(ttf, 1.0);
+            this.best = scores.isEmpty() ? null : scores.get(0);
+            this.median = percentile(scores, 0.5);
+            this.worst = scores.isEmpty() ? null : scores.get(scores.size() - 1);
+            for (int i = 0; i < CHECKPOINTS.length; i++) {
+                checkpointMillis[i] = Math.round(timeLimit * CHECKPOINTS[i]);
+                List<HardSoftScore> reached = new ArrayList<>();
+                for (Run run : group) {
+                    HardSoftScore at = run.bestAt(checkpointMillis[i]);
+                    // A run with no report yet ranks below every score
+                    reached.add(at != null ? at : new HardSoftScore(Integer.MIN_VALUE, 0));
+                }
+                reached.sort(Comparator.reverseOrder());
+                HardSoftScore m = percentile(reached, 0.5);
+                checkpointMedians[i] = m == null || m.hard() == Integer.MIN_VALUE ? null : m;
+            }
+        }
+
+        // Nearest rank, counted from the best end of the sorted list
+        private static <T> T percentile(List<T> sorted, double p) {
+            if (sorted.isEmpty()) return null;
+            int rank = (int) Math.ceil(p * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+}
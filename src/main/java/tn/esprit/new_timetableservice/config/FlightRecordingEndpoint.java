@@ -0,0 +1,148 @@
+package tn.esprit.new_timetableservice.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.*;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * On-demand Java Flight Recorder recordings, with the solver's phase, step and generation events:
+ * <ul>
+ *   <li>GET /actuator/jfr lists the JVM's recordings, including one started with -XX:StartFlightRecording</li>
+ *   <li>POST /actuator/jfr starts a recording; optional settings (default or profile), durationSeconds,
+ *       maxAgeSeconds and maxSizeMb</li>
+ *   <li>POST /actuator/jfr/{id} stops it</li>
+ *   <li>GET /actuator/jfr/{id} downloads it as a .jfr file, running or stopped</li>
+ *   <li>DELETE /actuator/jfr/{id} closes it and frees its disk space</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    @Value("${timetable.jfr.max.age.minutes:30}")
+    private long defaultMaxAgeMinutes;
+
+    @Value("${timetable.jfr.max.size.mb:100}")
+    private long defaultMaxSizeMb;
+
+    @ReadOperation
+    public List<Map<String, Object>> recordings() {
+        List<Map<String, Object>> recordings = new ArrayList<>();
+        if (FlightRecorder.isAvailable()) {
+            for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+                recordings.add(describe(recording));
+            }
+        }
+        return recordings;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable String settings, @Nullable Long durationSeconds,
+                                                          @Nullable Long maxAgeSeconds, @Nullable Long maxSizeMb) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown JFR settings: " + settings), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName("timetable-" + recording.getId());
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAgeSeconds != null ? Duration.ofSeconds(maxAgeSeconds) : Duration.ofMinutes(defaultMaxAgeMinutes));
+        recording.setMaxSize((maxSizeMb != null ? maxSizeMb : defaultMaxSizeMb) * 1024 * 1024);
+        if (durationSeconds != null) {
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+        }
+        recording.start();
+        logger.info("Started JFR recording {} with {} settings", recording.getId(), configuration.getName());
+        return new WebEndpointResponse<>(describe(recording));
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> stop(@Selector long id) {
+        return find(id).map(recording -> {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                logger.info("Stopped JFR recording {}", id);
+            }
+            return new WebEndpointResponse<>(describe(recording));
+        }).orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    // A running recording is dumped as it stands; the temporary copy goes away once the download is read
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        Optional<Recording> found = find(id);
+        if (found.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("timetable-" + id + "-", ".jfr");
+        try {
+            found.get().dump(file);
+        } catch (IOException | IllegalStateException e) {
+            Files.deleteIfExists(file);
+            logger.warn("Could not dump JFR recording {}: {}", id, e.getMessage());
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> close(@Selector long id) {
+        return find(id).map(recording -> {
+            recording.close();
+            logger.info("Closed JFR recording {}", id);
+            return new WebEndpointResponse<Void>(WebEndpointResponse.STATUS_NO_CONTENT);
+        }).orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    private Optional<Recording> find(long id) {
+        if (!FlightRecorder.isAvailable()) {
+            return Optional.empty();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getId() == id)
+                .findFirst();
+    }
+
+    private Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", recording.getId());
+        description.put("name", recording.getName());
+        description.put("state", recording.getState().name());
+        description.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+        description.put("stopTime", recording.getStopTime() != null ? recording.getStopTime().toString() : null);
+        description.put("durationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        description.put("maxAgeSeconds", recording.getMaxAge() != null ? recording.getMaxAge().toSeconds() : null);
+        description.put("maxSizeBytes", recording.getMaxSize());
+        description.put("sizeBytes", recording.getSize());
+        return description;
+    }
+}
@@ -41,6 +41,8 @@ public class SecurityConfig {
                         .requestMatchers("/error").permitAll()
 
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // Flight recordings hold thread dumps and system properties
+                        .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasAuthority("MANAGE_SCHOOLS")
                         // ProgramController endpoints
                         .requestMatchers(HttpMethod.POST, "/api/v1/program").hasAuthority("ADD_PROGRAM")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/program/**").hasAuthority("EDIT_PROGRAM")
@@ -49,8 +51,11 @@ public class SecurityConfig {
                         // TimetableController endpoints
                         .requestMatchers(HttpMethod.POST, "/api/v1/timetable/capacity").hasAuthority("VIEW_CAPACITY")
                         .requestMatchers(HttpMethod.POST, "/api/v1/timetable/generate").hasAuthority("GENERATE_TIMETABLE")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/timetable/jobs", "/api/v1/timetable/jobs/*/cancel", "/api/v1/timetable/*/resolve").hasAuthority("GENERATE_TIMETABLE")
                         .requestMatchers(HttpMethod.GET, "/api/v1/timetable/**").hasAuthority("VIEW_TIMETABLE")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/timetable/**").hasAuthority("EDIT_TIMETABLE")
+                        // SyntheticSchoolController endpoint, registered under the synthetic profile only
+                        .requestMatchers(HttpMethod.POST, "/api/v1/admin/synthetic-schools").hasAuthority("MANAGE_SCHOOLS")
                         // ClassController endpoints
                         .requestMatchers("/api/v1/classes/**").hasAuthority("MANAGE_CLASSES")
                         // ClassroomController endpoints
@@ -0,0 +1,54 @@
+package tn.esprit.new_timetableservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class SolverConfig {
+
+    // Dedicated pool for timetable solver work, so it never competes with the common pool or request threads
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool timetableSolverPool(@Value("${timetable.parallel.threads:0}") int threads) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    // Portfolio members, one thread each while they race; kept off the solver pool, whose threads the
+    // members' own parallel work needs
+    @Bean
+    public ThreadPoolTaskExecutor timetablePortfolioExecutor(@Value("${timetable.portfolio.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("timetable-portfolio-");
+        return executor;
+    }
+
+    // Background generation jobs; bounded so a burst of submissions is rejected instead of piling up
+    @Bean
+    public ThreadPoolTaskExecutor timetableJobExecutor(
+            @Value("${timetable.jobs.threads:2}") int threads,
+            @Value("${timetable.jobs.queue.capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("timetable-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Single thread pushing coalesced progress events to SSE subscribers, off the solver threads
+    @Bean
+    public ThreadPoolTaskScheduler timetableProgressScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("timetable-progress-");
+        return scheduler;
+    }
+}
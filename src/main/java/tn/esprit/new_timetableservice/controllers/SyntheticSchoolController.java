@@ -0,0 +1,37 @@
+package tn.esprit.new_timetableservice.controllers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.new_timetableservice.dto.SyntheticSchoolDTO;
+import tn.esprit.new_timetableservice.services.SyntheticSchoolService;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolSpec;
+
+// Load-test data only: the endpoint exists when the "synthetic" profile is active
+@RestController
+@Profile("synthetic")
+@RequestMapping("/api/v1/admin/synthetic-schools")
+public class SyntheticSchoolController {
+
+    @Autowired private SyntheticSchoolService syntheticSchoolService;
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticSchoolController.class);
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('MANAGE_SCHOOLS')")
+    public ResponseEntity<SyntheticSchoolDTO> generate(@RequestBody SyntheticSchoolSpec spec) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(syntheticSchoolService.generate(spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error generating synthetic school: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import tn.esprit.new_timetableservice.dto.*;
 import tn.esprit.new_timetableservice.entities.Timetable;
 import tn.esprit.new_timetableservice.repositories.*;
@@ -28,6 +31,7 @@ public class TimetableController {
     @Autowired private SubjectRepository subjectRepository;
     @Autowired private TimetableService timetableService;
     @Autowired private CapacityService capacityService;
+    @Autowired private TimetableJobService timetableJobService;
 
     private static final Logger logger = LoggerFactory.getLogger(TimetableController.class);
 
@@ -48,16 +52,81 @@ public class TimetableController {
     @PreAuthorize("hasAuthority('GENERATE_TIMETABLE')")
     public ResponseEntity<TimetableDTO> generateTimetable(@Valid @RequestBody GenerateTimetableRequestDTO request) {
         try {
-            TimetableDTO timetable = timetableService.generateTimetable(request);
+            TimetableDTO timetable = timetableJobService.generate(request);
             return ResponseEntity.ok(timetable);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
+        } catch (TaskRejectedException e) {
+            logger.warn("Timetable generation rejected for schoolId: {}, queue is full", request.getSchoolId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
         } catch (Exception e) {
             logger.error("Error generating timetable: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAuthority('GENERATE_TIMETABLE')")
+    public ResponseEntity<TimetableJobDTO> submitGenerationJob(@Valid @RequestBody GenerateTimetableRequestDTO request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(timetableJobService.submit(request));
+        } catch (TaskRejectedException e) {
+            logger.warn("Timetable job rejected for schoolId: {}, queue is full", request.getSchoolId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAuthority('VIEW_TIMETABLE')")
+    public ResponseEntity<TimetableJobDTO> getGenerationJob(@PathVariable String jobId) {
+        return timetableJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('VIEW_TIMETABLE')")
+    public ResponseEntity<SseEmitter> streamGenerationProgress(@PathVariable String jobId) {
+        return timetableJobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    @PreAuthorize("hasAuthority('GENERATE_TIMETABLE')")
+    public ResponseEntity<TimetableJobDTO> cancelGenerationJob(@PathVariable String jobId) {
+        return timetableJobService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{timetableId}/resolve")
+    @PreAuthorize("hasAuthority('GENERATE_TIMETABLE')")
+    public ResponseEntity<TimetableDTO> resolveScope(
+            @PathVariable Long timetableId,
+            @RequestBody PartialResolveRequestDTO request) {
+        try {
+            return ResponseEntity.ok(timetableService.resolveScope(timetableId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error re-solving timetable {}: {}", timetableId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    @GetMapping("/eligibility")
+    @PreAuthorize("hasAuthority('VIEW_TIMETABLE')")
+    public ResponseEntity<EligibilityReportDTO> getEligibility(
+            @RequestParam Long schoolId,
+            @RequestParam List<Long> programIds) {
+        try {
+            return ResponseEntity.ok(timetableService.getEligibilityReport(schoolId, programIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     @GetMapping("/{timetableId}")
     @PreAuthorize("hasAuthority('VIEW_TIMETABLE')")
     public ResponseEntity<TimetableDTO> getTimetable(@PathVariable Long timetableId) {
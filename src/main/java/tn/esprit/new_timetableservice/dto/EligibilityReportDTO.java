@@ -0,0 +1,31 @@
+package tn.esprit.new_timetableservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class EligibilityReportDTO {
+    private Long schoolId;
+    private boolean complete;
+    private Map<Long, List<Long>> subjectsWithoutTeachers; // programId -> subjectIds
+    private List<Long> subjectsWithoutClassrooms;
+
+    public EligibilityReportDTO(
+            Long schoolId,
+            Map<Long, List<Long>> subjectsWithoutTeachers,
+            List<Long> subjectsWithoutClassrooms) {
+        this.schoolId = schoolId;
+        this.complete = subjectsWithoutTeachers.isEmpty() && subjectsWithoutClassrooms.isEmpty();
+        this.subjectsWithoutTeachers = subjectsWithoutTeachers;
+        this.subjectsWithoutClassrooms = subjectsWithoutClassrooms;
+    }
+
+    // Getters and setters
+    public Long getSchoolId() { return schoolId; }
+    public void setSchoolId(Long schoolId) { this.schoolId = schoolId; }
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+    public Map<Long, List<Long>> getSubjectsWithoutTeachers() { return subjectsWithoutTeachers; }
+    public void setSubjectsWithoutTeachers(Map<Long, List<Long>> subjectsWithoutTeachers) { this.subjectsWithoutTeachers = subjectsWithoutTeachers; }
+    public List<Long> getSubjectsWithoutClassrooms() { return subjectsWithoutClassrooms; }
+    public void setSubjectsWithoutClassrooms(List<Long> subjectsWithoutClassrooms) { this.subjectsWithoutClassrooms = subjectsWithoutClassrooms; }
+}
@@ -1,13 +1,30 @@
 package tn.esprit.new_timetableservice.dto;
 
+import java.util.List;
 import java.util.Map;
 
 public class GenerateTimetableRequestDTO {
     private Long schoolId;
     private Map<Long, Integer> programClassCounts;
+    // Re-optimize the stored timetable and its classes instead of generating from programClassCounts
+    private Boolean reoptimize;
+    // Lessons placed once at a fixed slot and never moved by the solver
+    private List<PinnedLessonDTO> pinnedLessons;
+    // Solver bean name: genetic, annealing, greedy or portfolio; the configured default when absent
+    private String solver;
+    // Save the best timetable found so far when the job is cancelled; by default a cancelled job changes nothing
+    private Boolean keepPartialResult;
 
     public Long getSchoolId() { return schoolId; }
     public void setSchoolId(Long schoolId) { this.schoolId = schoolId; }
     public Map<Long, Integer> getProgramClassCounts() { return programClassCounts; }
     public void setProgramClassCounts(Map<Long, Integer> programClassCounts) { this.programClassCounts = programClassCounts; }
-}
\ No newline at end of file
+    public Boolean getReoptimize() { return reoptimize; }
+    public void setReoptimize(Boolean reoptimize) { this.reoptimize = reoptimize; }
+    public List<PinnedLessonDTO> getPinnedLessons() { return pinnedLessons; }
+    public void setPinnedLessons(List<PinnedLessonDTO> pinnedLessons) { this.pinnedLessons = pinnedLessons; }
+    public String getSolver() { return solver; }
+    public void setSolver(String solver) { this.solver = solver; }
+    public Boolean getKeepPartialResult() { return keepPartialResult; }
+    public void setKeepPartialResult(Boolean keepPartialResult) { this.keepPartialResult = keepPartialResult; }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.new_timetableservice.dto;
+
+// Scope of a partial re-solve; exactly one of the ids is set
+public class PartialResolveRequestDTO {
+    private Long classId;
+    private Long teacherId;
+    private Long classroomId;
+    // Same choice as on generation
+    private String solver;
+
+    public Long getClassId() { return classId; }
+    public void setClassId(Long classId) { this.classId = classId; }
+    public Long getTeacherId() { return teacherId; }
+    public void setTeacherId(Long teacherId) { this.teacherId = teacherId; }
+    public Long getClassroomId() { return classroomId; }
+    public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
+    public String getSolver() { return solver; }
+    public void setSolver(String solver) { this.solver = solver; }
+}
@@ -0,0 +1,25 @@
+package tn.esprit.new_timetableservice.dto;
+
+// A lesson locked to a time slot. The class is the classNumber-th class (1-based) of the program;
+// teacher and classroom are optional and picked by the solver when left out
+public class PinnedLessonDTO {
+    private Long programId;
+    private Integer classNumber;
+    private Long subjectId;
+    private Long teacherId;
+    private Long classroomId;
+    private Long timeSlotId;
+
+    public Long getProgramId() { return programId; }
+    public void setProgramId(Long programId) { this.programId = programId; }
+    public Integer getClassNumber() { return classNumber; }
+    public void setClassNumber(Integer classNumber) { this.classNumber = classNumber; }
+    public Long getSubjectId() { return subjectId; }
+    public void setSubjectId(Long subjectId) { this.subjectId = subjectId; }
+    public Long getTeacherId() { return teacherId; }
+    public void setTeacherId(Long teacherId) { this.teacherId = teacherId; }
+    public Long getClassroomId() { return classroomId; }
+    public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
+    public Long getTimeSlotId() { return timeSlotId; }
+    public void setTimeSlotId(Long timeSlotId) { this.timeSlotId = timeSlotId; }
+}
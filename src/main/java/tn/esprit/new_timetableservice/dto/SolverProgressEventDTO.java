@@ -0,0 +1,26 @@
+package tn.esprit.new_timetableservice.dto;
+
+public class SolverProgressEventDTO {
+    private String jobId;
+    private String phase;
+    private int generation;
+    private Integer bestFitness;
+    private Double meanFitness;
+    private Integer hardViolations;
+    private long elapsedMillis;
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getPhase() { return phase; }
+    public void setPhase(String phase) { this.phase = phase; }
+    public int getGeneration() { return generation; }
+    public void setGeneration(int generation) { this.generation = generation; }
+    public Integer getBestFitness() { return bestFitness; }
+    public void setBestFitness(Integer bestFitness) { this.bestFitness = bestFitness; }
+    public Double getMeanFitness() { return meanFitness; }
+    public void setMeanFitness(Double meanFitness) { this.meanFitness = meanFitness; }
+    public Integer getHardViolations() { return hardViolations; }
+    public void setHardViolations(Integer hardViolations) { this.hardViolations = hardViolations; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+}
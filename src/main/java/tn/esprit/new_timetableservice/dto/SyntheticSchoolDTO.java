@@ -0,0 +1,24 @@
+package tn.esprit.new_timetableservice.dto;
+
+import java.util.Map;
+
+public class SyntheticSchoolDTO {
+    private Long schoolId;
+    private String name;
+    // Ready to use as programClassCounts of a generation request
+    private Map<Long, Integer> programClassCounts;
+    // Rows written per table
+    private Map<String, Integer> recordCounts;
+    private long elapsedMillis;
+
+    public Long getSchoolId() { return schoolId; }
+    public void setSchoolId(Long schoolId) { this.schoolId = schoolId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Map<Long, Integer> getProgramClassCounts() { return programClassCounts; }
+    public void setProgramClassCounts(Map<Long, Integer> programClassCounts) { this.programClassCounts = programClassCounts; }
+    public Map<String, Integer> getRecordCounts() { return recordCounts; }
+    public void setRecordCounts(Map<String, Integer> recordCounts) { this.recordCounts = recordCounts; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+}
@@ -8,6 +8,13 @@ public class TimetableDTO {
     private String status;
     private String generatedAt;
     private List<ScheduleDTO> schedules;
+    // Lessons that differ from the previously stored timetable; only set when re-optimizing
+    private Integer changedLessons;
+    // Why the solver stopped searching: OPTIMAL, MAX_GENERATIONS, TIMEOUT, STAGNATION or CANCELLED
+    private String stopReason;
+    // Score of the solution; hardScore is minus the hard violations, so 0 means feasible
+    private Integer hardScore;
+    private Double softScore;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -19,4 +26,12 @@ public class TimetableDTO {
     public void setGeneratedAt(String generatedAt) { this.generatedAt = generatedAt; }
     public List<ScheduleDTO> getSchedules() { return schedules; }
     public void setSchedules(List<ScheduleDTO> schedules) { this.schedules = schedules; }
+    public Integer getChangedLessons() { return changedLessons; }
+    public void setChangedLessons(Integer changedLessons) { this.changedLessons = changedLessons; }
+    public String getStopReason() { return stopReason; }
+    public void setStopReason(String stopReason) { this.stopReason = stopReason; }
+    public Integer getHardScore() { return hardScore; }
+    public void setHardScore(Integer hardScore) { this.hardScore = hardScore; }
+    public Double getSoftScore() { return softScore; }
+    public void setSoftScore(Double softScore) { this.softScore = softScore; }
 }
\ No newline at end of file
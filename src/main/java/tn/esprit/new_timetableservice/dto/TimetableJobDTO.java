@@ -0,0 +1,35 @@
+package tn.esprit.new_timetableservice.dto;
+
+public class TimetableJobDTO {
+    private String jobId;
+    private Long schoolId;
+    private String phase;
+    private int generation;
+    private Integer bestFitness;
+    private Long timetableId;
+    private String submittedAt;
+    private String finishedAt;
+    private String error;
+    private String stopReason;
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public Long getSchoolId() { return schoolId; }
+    public void setSchoolId(Long schoolId) { this.schoolId = schoolId; }
+    public String getPhase() { return phase; }
+    public void setPhase(String phase) { this.phase = phase; }
+    public int getGeneration() { return generation; }
+    public void setGeneration(int generation) { this.generation = generation; }
+    public Integer getBestFitness() { return bestFitness; }
+    public void setBestFitness(Integer bestFitness) { this.bestFitness = bestFitness; }
+    public Long getTimetableId() { return timetableId; }
+    public void setTimetableId(Long timetableId) { this.timetableId = timetableId; }
+    public String getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(String submittedAt) { this.submittedAt = submittedAt; }
+    public String getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(String finishedAt) { this.finishedAt = finishedAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public String getStopReason() { return stopReason; }
+    public void setStopReason(String stopReason) { this.stopReason = stopReason; }
+}
@@ -1,10 +1,14 @@
 package tn.esprit.new_timetableservice.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import tn.esprit.new_timetableservice.entities.ProgramSubject;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProgramSubjectRepository extends JpaRepository<ProgramSubject, Long> {
     List<ProgramSubject> findByProgramId(Long programId);
+    @Query("SELECT ps FROM ProgramSubject ps JOIN FETCH ps.subject WHERE ps.program.id IN :programIds")
+    List<ProgramSubject> findWithSubjectByProgramIdIn(Collection<Long> programIds);
 }
\ No newline at end of file
@@ -8,4 +8,5 @@ import java.util.List;
 public interface TeacherAvailabilityRepository extends JpaRepository<TeacherAvailability, Long> {
     List<TeacherAvailability> findByTeacherId(Long teacherId);
     List<TeacherAvailability> findByTeacherIdAndIsAvailable(Long teacherId, Boolean isAvailable);
+    List<TeacherAvailability> findByTeacherSchoolId(Long schoolId);
 }
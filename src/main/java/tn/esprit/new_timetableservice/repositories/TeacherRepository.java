@@ -1,6 +1,7 @@
 package tn.esprit.new_timetableservice.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import tn.esprit.new_timetableservice.entities.Teacher;
 import tn.esprit.new_timetableservice.entities.Subject;
 import tn.esprit.new_timetableservice.entities.Program;
@@ -10,4 +11,6 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     List<Teacher> findBySubjectAndProgramsContaining(Subject subject, Program program);
     List<Teacher> findBySubjectIdAndSchoolId(Long subjectId, Long schoolId);
     List<Teacher> findBySchoolId(Long schoolId);
+    @Query("SELECT DISTINCT t FROM Teacher t JOIN FETCH t.subject LEFT JOIN FETCH t.programs WHERE t.school.id = :schoolId")
+    List<Teacher> findWithSubjectAndProgramsBySchoolId(Long schoolId);
 }
\ No newline at end of file
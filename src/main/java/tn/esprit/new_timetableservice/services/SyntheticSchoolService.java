@@ -0,0 +1,179 @@
+package tn.esprit.new_timetableservice.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import tn.esprit.new_timetableservice.dto.SyntheticSchoolDTO;
+import tn.esprit.new_timetableservice.entities.Program;
+import tn.esprit.new_timetableservice.entities.Teacher;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchool;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolGenerator;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolSpec;
+import jakarta.transaction.Transactional;
+
+import java.sql.Time;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Generates a synthetic school and writes it with batched JDBC inserts, bypassing JPA, so that
+ * schools with thousands of teachers and tens of thousands of availability rows load in seconds.
+ */
+@Service
+public class SyntheticSchoolService {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticSchoolService.class);
+
+    @Value("${synthetic.batch.size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Without a name the school gets a timestamped one, as program names must be unique across schools
+    @Transactional
+    public SyntheticSchoolDTO generate(SyntheticSchoolSpec spec) {
+        long start = System.currentTimeMillis();
+        if (spec.getName() == null || spec.getName().isBlank()) {
+            spec.setName("Synthetic " + spec.getSeed() + " " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        }
+        SyntheticSchool school = SyntheticSchoolGenerator.generate(spec);
+        write(school);
+
+        SyntheticSchoolDTO dto = new SyntheticSchoolDTO();
+        dto.setSchoolId(school.getSchool().getId());
+        dto.setName(school.getSchool().getName());
+        dto.setProgramClassCounts(school.programClassCounts());
+        dto.setRecordCounts(school.recordCounts());
+        dto.setElapsedMillis(System.currentTimeMillis() - start);
+        logger.info("Wrote synthetic school {} ({}) in {} ms: {}", dto.getSchoolId(), dto.getName(),
+                dto.getElapsedMillis(), dto.getRecordCounts());
+        return dto;
+    }
+
+    // Database ids replace the provisional ones first, so foreign keys follow the entity references
+    private void write(SyntheticSchool school) {
+        assignIds("school", List.of(school.getSchool()), (e, id) -> e.setId(id));
+        assignIds("level", school.getLevels(), (e, id) -> e.setId(id));
+        assignIds("specialty", school.getSpecialties(), (e, id) -> e.setId(id));
+        assignIds("subject", school.getSubjects(), (e, id) -> e.setId(id));
+        assignIds("program", school.getPrograms(), (e, id) -> e.setId(id));
+        assignIds("program_subject", school.getProgramSubjects(), (e, id) -> e.setId(id));
+        assignIds("time_slot", school.getTimeSlots(), (e, id) -> e.setId(id));
+        assignIds("classroom", school.getClassrooms(), (e, id) -> e.setId(id));
+        assignIds("teacher_availability", school.getAvailabilities(), (e, id) -> e.setId(id));
+        // Teacher ids come from the user service and have no sequence; synthetic teachers take the next free range.
+        // The lock holds off every other teacher insert until this transaction commits, so the range stays free
+        jdbcTemplate.execute("LOCK TABLE teacher IN SHARE ROW EXCLUSIVE MODE");
+        Long maxTeacherId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM teacher", Long.class);
+        for (int i = 0; i < school.getTeachers().size(); i++) {
+            school.getTeachers().get(i).setId(maxTeacherId + 1 + i);
+        }
+
+        insert("INSERT INTO school (id, name, academic_year, region, type) VALUES (?, ?, ?, ?, ?)",
+                List.of(school.getSchool()), (ps, s) -> {
+                    ps.setLong(1, s.getId());
+                    ps.setString(2, s.getName());
+                    ps.setString(3, s.getAcademicYear());
+                    ps.setString(4, s.getRegion());
+                    ps.setString(5, s.getType());
+                });
+        insert("INSERT INTO level (id, name, supports_specialty) VALUES (?, ?, ?)",
+                school.getLevels(), (ps, l) -> {
+                    ps.setLong(1, l.getId());
+                    ps.setString(2, l.getName());
+                    ps.setBoolean(3, l.isSupportsSpecialty());
+                });
+        insert("INSERT INTO specialty (id, level_id, name) VALUES (?, ?, ?)",
+                school.getSpecialties(), (ps, s) -> {
+                    ps.setLong(1, s.getId());
+                    ps.setLong(2, s.getLevel().getId());
+                    ps.setString(3, s.getName());
+                });
+        insert("INSERT INTO subject (id, name, default_hours_per_week, room_type) VALUES (?, ?, ?, ?)",
+                school.getSubjects(), (ps, s) -> {
+                    ps.setLong(1, s.getId());
+                    ps.setString(2, s.getName());
+                    ps.setNull(3, Types.INTEGER);
+                    ps.setString(4, s.getRoomType());
+                });
+        insert("INSERT INTO program (id, level_id, specialty_id, name) VALUES (?, ?, ?, ?)",
+                school.getPrograms(), (ps, p) -> {
+                    ps.setLong(1, p.getId());
+                    ps.setLong(2, p.getLevel().getId());
+                    ps.setLong(3, p.getSpecialty().getId());
+                    ps.setString(4, p.getName());
+                });
+        insert("INSERT INTO program_subject (id, program_id, subject_id, hours_per_week, is_core) VALUES (?, ?, ?, ?, ?)",
+                school.getProgramSubjects(), (ps, r) -> {
+                    ps.setLong(1, r.getId());
+                    ps.setLong(2, r.getProgram().getId());
+                    ps.setLong(3, r.getSubject().getId());
+                    ps.setInt(4, r.getHoursPerWeek());
+                    ps.setBoolean(5, r.getIsCore());
+                });
+        insert("INSERT INTO time_slot (id, school_id, day, start_time, end_time) VALUES (?, ?, ?, ?, ?)",
+                school.getTimeSlots(), (ps, t) -> {
+                    ps.setLong(1, t.getId());
+                    ps.setLong(2, t.getSchool().getId());
+                    ps.setString(3, t.getDay());
+                    ps.setTime(4, Time.valueOf(t.getStartTime()));
+                    ps.setTime(5, Time.valueOf(t.getEndTime()));
+                });
+        insert("INSERT INTO classroom (id, school_id, name, capacity, type) VALUES (?, ?, ?, ?, ?)",
+                school.getClassrooms(), (ps, c) -> {
+                    ps.setLong(1, c.getId());
+                    ps.setLong(2, c.getSchool().getId());
+                    ps.setString(3, c.getName());
+                    ps.setInt(4, c.getCapacity());
+                    ps.setString(5, c.getType());
+                });
+        insert("INSERT INTO teacher (id, school_id, name, subject_id, max_hours_per_week) VALUES (?, ?, ?, ?, ?)",
+                school.getTeachers(), (ps, t) -> {
+                    ps.setLong(1, t.getId());
+                    ps.setLong(2, t.getSchool().getId());
+                    ps.setString(3, t.getName());
+                    ps.setLong(4, t.getSubject().getId());
+                    ps.setInt(5, t.getMaxHoursPerWeek());
+                });
+        List<long[]> teacherPrograms = new ArrayList<>();
+        for (Teacher teacher : school.getTeachers()) {
+            for (Program program : teacher.getPrograms()) {
+                teacherPrograms.add(new long[]{teacher.getId(), program.getId()});
+            }
+        }
+        insert("INSERT INTO teacher_program (teacher_id, program_id) VALUES (?, ?)",
+                teacherPrograms, (ps, link) -> {
+                    ps.setLong(1, link[0]);
+                    ps.setLong(2, link[1]);
+                });
+        insert("INSERT INTO teacher_availability (id, teacher_id, time_slot_id, is_available) VALUES (?, ?, ?, ?)",
+                school.getAvailabilities(), (ps, a) -> {
+                    ps.setLong(1, a.getId());
+                    ps.setLong(2, a.getTeacher().getId());
+                    ps.setLong(3, a.getTimeSlot().getId());
+                    ps.setBoolean(4, a.getIsAvailable());
+                });
+    }
+
+    // Draws the ids from the table's identity sequence in one round trip
+    private <T> void assignIds(String table, List<T> rows, BiConsumer<T, Long> setId) {
+        if (rows.isEmpty()) return;
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)", Long.class, table, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            setId.accept(rows.get(i), ids.get(i));
+        }
+    }
+
+    private <T> void insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+    }
+}
@@ -0,0 +1,253 @@
+package tn.esprit.new_timetableservice.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tn.esprit.new_timetableservice.dto.GenerateTimetableRequestDTO;
+import tn.esprit.new_timetableservice.dto.SolverProgressEventDTO;
+import tn.esprit.new_timetableservice.dto.TimetableDTO;
+import tn.esprit.new_timetableservice.dto.TimetableJobDTO;
+import tn.esprit.new_timetableservice.solver.SolverProgress;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// Runs timetable generation in the background on a bounded executor; jobs are kept in memory
+@Service
+public class TimetableJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableJobService.class);
+
+    @Value("${timetable.jobs.retention.minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${timetable.progress.interval.ms:500}")
+    private long progressIntervalMs;
+
+    @Value("${timetable.progress.timeout.minutes:30}")
+    private long progressTimeoutMinutes;
+
+    @Autowired
+    @Qualifier("timetableProgressScheduler")
+    private ThreadPoolTaskScheduler progressScheduler;
+
+    @Autowired
+    @Qualifier("timetableJobExecutor")
+    private ThreadPoolTaskExecutor jobExecutor;
+
+    @Autowired private TimetableService timetableService;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // Subscribers get at most one event per interval, however fast the solver runs
+    @PostConstruct
+    void init() {
+        progressScheduler.scheduleAtFixedRate(this::publishProgress, Duration.ofMillis(Math.max(50, progressIntervalMs)));
+        registerGauges();
+    }
+
+    private void registerGauges() {
+        Gauge.builder("timetable.jobs.active", jobs, all -> all.values().stream()
+                        .filter(job -> job.finishedAt == null && job.progress.getPhase() != SolverProgress.Phase.QUEUED)
+                        .count())
+                .description("Timetable jobs currently running")
+                .register(meterRegistry);
+        Gauge.builder("timetable.jobs.queued", jobExecutor, executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Timetable jobs waiting for a free worker")
+                .register(meterRegistry);
+    }
+
+    // Throws TaskRejectedException when the executor queue is full
+    public TimetableJobDTO submit(GenerateTimetableRequestDTO request) {
+        purgeFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), request.getSchoolId());
+        jobs.put(job.id, job);
+        try {
+            job.future = jobExecutor.submit(() -> run(job, request));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        logger.info("Submitted timetable job {} for schoolId: {}", job.id, job.schoolId);
+        return toDTO(job);
+    }
+
+    // Synchronous generation still runs on a job worker: the request thread's open-in-view EntityManager is never
+    // used, so it takes no connection while the solver runs. Throws TaskRejectedException when the queue is full
+    public TimetableDTO generate(GenerateTimetableRequestDTO request) {
+        SolverProgress progress = new SolverProgress();
+        Future<TimetableDTO> future = jobExecutor.submit(() -> timetableService.generateTimetable(request, progress));
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Timetable generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            progress.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for timetable generation", e);
+        }
+    }
+
+    public Optional<TimetableJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toDTO);
+    }
+
+    // A queued job is dropped; a running one stops at the next generation and only saves its best timetable
+    // when the request set keepPartialResult
+    public Optional<TimetableJobDTO> cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.progress.cancel();
+        if (job.progress.getPhase() == SolverProgress.Phase.QUEUED && job.future != null && job.future.cancel(false)) {
+            job.progress.setPhase(SolverProgress.Phase.CANCELLED);
+            job.finishedAt = LocalDateTime.now();
+        }
+        logger.info("Cancellation requested for timetable job {}", jobId);
+        return Optional.of(toDTO(job));
+    }
+
+    // Streams "progress" events while the job runs and a final "done" event with the job status
+    public Optional<SseEmitter> subscribe(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(progressTimeoutMinutes).toMillis());
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        job.emitters.add(emitter);
+        return Optional.of(emitter);
+    }
+
+    private void publishProgress() {
+        for (Job job : jobs.values()) {
+            if (job.emitters.isEmpty()) continue;
+            SolverProgress.GenerationStats stats = job.progress.getLatest();
+            SolverProgress.Phase phase = job.progress.getPhase();
+            if (stats != job.lastPublished || phase != job.lastPublishedPhase) {
+                job.lastPublished = stats;
+                job.lastPublishedPhase = phase;
+                send(job, "progress", toEvent(job, stats, phase));
+            }
+            if (job.finishedAt != null) {
+                send(job, "done", toDTO(job));
+                job.emitters.forEach(SseEmitter::complete);
+                job.emitters.clear();
+            }
+        }
+    }
+
+    private void send(Job job, String name, Object data) {
+        for (SseEmitter emitter : job.emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping progress subscriber for timetable job {}: {}", job.id, e.getMessage());
+                job.emitters.remove(emitter);
+            }
+        }
+    }
+
+    private SolverProgressEventDTO toEvent(Job job, SolverProgress.GenerationStats stats, SolverProgress.Phase phase) {
+        SolverProgressEventDTO event = new SolverProgressEventDTO();
+        event.setJobId(job.id);
+        event.setPhase(phase.name());
+        event.setBestFitness(job.progress.getBestFitness());
+        if (stats != null) {
+            event.setGeneration(stats.getGeneration());
+            event.setMeanFitness(stats.getMeanFitness());
+            event.setHardViolations(stats.getHardViolations());
+        }
+        event.setElapsedMillis(job.progress.getElapsedMillis());
+        logger.debug("Timetable job {} {}: generation {}, best fitness {}", job.id, phase, event.getGeneration(), event.getBestFitness());
+        return event;
+    }
+
+    private void run(Job job, GenerateTimetableRequestDTO request) {
+        if (job.progress.isCancelled()) {
+            job.progress.setPhase(SolverProgress.Phase.CANCELLED);
+            job.finishedAt = LocalDateTime.now();
+            return;
+        }
+        try {
+            TimetableDTO timetable = timetableService.generateTimetable(request, job.progress);
+            job.timetableId = timetable != null ? timetable.getId() : null;
+            // A cancel that came too late to stop the save still leaves a saved timetable, so the outcome decides
+            job.progress.setPhase(timetable == null && job.progress.isCancelled()
+                    ? SolverProgress.Phase.CANCELLED : SolverProgress.Phase.COMPLETED);
+            logger.info("Timetable job {} finished as {} with timetable ID: {}", job.id, job.progress.getPhase(), job.timetableId);
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.progress.setPhase(SolverProgress.Phase.FAILED);
+            logger.error("Timetable job {} failed", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private TimetableJobDTO toDTO(Job job) {
+        TimetableJobDTO dto = new TimetableJobDTO();
+        dto.setJobId(job.id);
+        dto.setSchoolId(job.schoolId);
+        dto.setPhase(job.progress.getPhase().name());
+        dto.setGeneration(job.progress.getGeneration());
+        dto.setBestFitness(job.progress.getBestFitness());
+        dto.setTimetableId(job.timetableId);
+        dto.setSubmittedAt(job.submittedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setFinishedAt(job.finishedAt != null ? job.finishedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+        dto.setError(job.error);
+        dto.setStopReason(job.progress.getStopReason() != null ? job.progress.getStopReason().name() : null);
+        return dto;
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Long schoolId;
+        private final SolverProgress progress = new SolverProgress();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile Future<?> future;
+        private volatile Long timetableId;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // Only touched by the progress scheduler thread
+        private SolverProgress.GenerationStats lastPublished;
+        private SolverProgress.Phase lastPublishedPhase;
+
+        Job(String id, Long schoolId) {
+            this.id = id;
+            this.schoolId = schoolId;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package tn.esprit.new_timetableservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tn.esprit.new_timetableservice.solver.SolverProgress;
+import tn.esprit.new_timetableservice.solver.SolverResult;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the generation pipeline, all tagged with the school's size bucket so small and large
+ * schools can be told apart:
+ * <ul>
+ *   <li>timetable.generation.phase: load, deletion, class.creation, solve and save</li>
+ *   <li>timetable.solver.step: construction, generation, repair and local.search inside the solver</li>
+ *   <li>timetable.solver.evaluation: building and incrementally scoring a chunk of offspring, with a
+ *       percentile histogram</li>
+ *   <li>timetable.generation.results and timetable.generation.hard.violations: outcome of each run</li>
+ * </ul>
+ * Job gauges are registered by {@link TimetableJobService}.
+ */
+@Component
+public class TimetableMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // By number of classes, the main driver of solver work
+    public static String sizeBucket(int classes) {
+        if (classes <= 20) return "small";
+        if (classes <= 100) return "medium";
+        if (classes <= 300) return "large";
+        return "xlarge";
+    }
+
+    public Timer phase(String phase, String size) {
+        return Timer.builder("timetable.generation.phase")
+                .description("Time spent in each phase of timetable generation")
+                .tags("phase", phase, "size", size)
+                .register(registry);
+    }
+
+    // Meters are looked up once per run, so recording a step is a map read and a timer update
+    public SolverProgress.Listener solverListener(String size) {
+        Map<SolverProgress.Step, Timer> timers = new EnumMap<>(SolverProgress.Step.class);
+        for (SolverProgress.Step step : SolverProgress.Step.values()) {
+            timers.put(step, step == SolverProgress.Step.EVALUATION
+                    ? Timer.builder("timetable.solver.evaluation")
+                            .description("Offspring built and scored incrementally by one worker in a generation")
+                            .tags("size", size)
+                            .publishPercentileHistogram()
+                            .register(registry)
+                    : Timer.builder("timetable.solver.step")
+                            .description("Time spent in solver steps")
+                            .tags("step", step.name().toLowerCase(Locale.ROOT).replace('_', '.'), "size", size)
+                            .register(registry));
+        }
+        return new SolverProgress.Listener() {
+            @Override
+            public void stepTimed(SolverProgress.Step step, long nanos) {
+                timers.get(step).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    public void recordResult(String size, SolverResult result) {
+        Counter.builder("timetable.generation.results")
+                .description("Finished solver runs")
+                .tags("size", size, "solver", result.getSolver().split(":")[0],
+                        "feasible", String.valueOf(result.getScore().isFeasible()),
+                        "stop.reason", result.getStopReason().name())
+                .register(registry)
+                .increment();
+        Counter.builder("timetable.generation.hard.violations")
+                .description("Hard violations left in the saved timetables")
+                .tags("size", size)
+                .register(registry)
+                .increment(result.getHardViolations());
+    }
+}
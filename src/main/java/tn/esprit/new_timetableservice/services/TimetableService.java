@@ -1,37 +1,54 @@
 package tn.esprit.new_timetableservice.services;
 
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import tn.esprit.new_timetableservice.dto.*;
 import tn.esprit.new_timetableservice.entities.*;
 import tn.esprit.new_timetableservice.entities.Class;
 import tn.esprit.new_timetableservice.repositories.*;
+import tn.esprit.new_timetableservice.solver.EligibilityIndex;
+import tn.esprit.new_timetableservice.solver.GeneticTimetable;
+import tn.esprit.new_timetableservice.solver.SolverBudget;
+import tn.esprit.new_timetableservice.solver.SolverProgress;
+import tn.esprit.new_timetableservice.solver.SolverResult;
+import tn.esprit.new_timetableservice.solver.TimetableSolver;
+import tn.esprit.new_timetableservice.solver.ProblemSnapshot;
 import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Service
 public class TimetableService {
     private static final Logger logger = LoggerFactory.getLogger(TimetableService.class);
 
-    @Value("${timetable.population.size:50}")
-    private int populationSize;
+    @Value("${timetable.timeout.seconds:15}")
+    private int timeoutSeconds;
 
-    @Value("${timetable.mutation.rate:0.01}")
-    private double mutationRate;
+    @Value("${timetable.resolve.timeout.seconds:3}")
+    private int resolveTimeoutSeconds;
 
-    @Value("${timetable.max.generations:500}")
-    private int maxGenerations;
+    @Value("${timetable.random.seed:#{null}}")
+    private Long randomSeed;
 
-    @Value("${timetable.timeout.seconds:15}")
-    private int timeoutSeconds;
+    @Value("${timetable.reoptimize.change.penalty:50}")
+    private int changePenalty;
+
+    @Value("${timetable.solver:genetic}")
+    private String defaultSolver;
+
+    // Every TimetableSolver bean, keyed by bean name
+    @Autowired
+    private Map<String, TimetableSolver> solvers;
 
     @Autowired private ProgramRepository programRepository;
     @Autowired private ProgramSubjectRepository programSubjectRepository;
@@ -43,502 +60,570 @@ public class TimetableService {
     @Autowired private TimetableRepository timetableRepository;
     @Autowired private ScheduleRepository scheduleRepository;
     @Autowired private SchoolRepository schoolRepository;
-    @Transactional
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private TimetableMetrics metrics;
+
     public TimetableDTO generateTimetable(GenerateTimetableRequestDTO request) {
+        return generateTimetable(request, new SolverProgress());
+    }
+
+    // Progress is updated as the run goes; cancelling it stops the solver, and the stored timetable is left as it
+    // was and null returned, unless keepPartialResult asks for the best timetable so far to be saved.
+    // Runs as load (read-only transaction), compute (no transaction) and save (one short write transaction),
+    // so no locks are held on the school's rows and no connection while the solver runs. The web endpoint calls
+    // this through TimetableJobService, off the request thread and its open-in-view EntityManager.
+    // With reoptimize set, the stored timetable seeds the search and its classes are kept.
+    public TimetableDTO generateTimetable(GenerateTimetableRequestDTO request, SolverProgress progress) {
         logger.info("Starting timetable generation for schoolId: {}", request.getSchoolId());
+        TimetableSolver solver = solver(request.getSolver());
+        if (request.getSchoolId() != null) {
+            progress.setSchoolId(request.getSchoolId());
+        }
+        progress.start();
         try {
-            // Validate inputs
             Long schoolId = request.getSchoolId();
-            logger.debug("Validating programClassCounts: {}", request.getProgramClassCounts());
             Map<Long, Integer> programClassCounts = request.getProgramClassCounts();
-            List<Program> programs = programRepository.findAllById(programClassCounts.keySet());
-            if (programs.size() != programClassCounts.size()) {
-                logger.error("Invalid program IDs: {}", programClassCounts.keySet());
-                throw new IllegalArgumentException("Invalid program IDs: " + programClassCounts.keySet());
+            boolean reoptimize = Boolean.TRUE.equals(request.getReoptimize());
+
+            // Load
+            Timer.Sample load = Timer.start();
+            SchoolData data = readOnlyTransaction().execute(status -> reoptimize
+                    ? loadStoredTimetable(timetableRepository.findBySchoolId(schoolId).orElseThrow(() ->
+                            new IllegalArgumentException("No stored timetable to re-optimize for schoolId: " + schoolId)))
+                    : loadSchoolData(schoolId, programClassCounts));
+
+            // Compute; new classes are only persisted in the save phase
+            List<Class> classes = reoptimize ? data.classes : buildClasses(programClassCounts, data.programs);
+            String size = TimetableMetrics.sizeBucket(classes.size());
+            load.stop(metrics.phase("load", size));
+            List<Subject> subjects = collectSubjects(data.requirements, data.teachers);
+            ProblemSnapshot problem = ProblemSnapshot.from(classes, data.programs, subjects, data.teachers,
+                    data.classrooms, data.timeSlots, data.requirements, data.teacherAvailabilities);
+            ProblemSnapshot snapshot = reoptimize
+                    ? problem.withReference(mapStoredLessons(problem, classes, data.storedLessons), changePenalty)
+                    : problem;
+            List<PinnedLessonDTO> pinnedLessons = request.getPinnedLessons();
+            if (pinnedLessons != null && !pinnedLessons.isEmpty()) {
+                snapshot = snapshot.withFixed(pinLessons(problem, classes, pinnedLessons));
+                logger.info("Pinned {} lessons, {} left to the solver", snapshot.fixedCount(), snapshot.lessonCount());
             }
-
-            // Delete existing data in correct order
-            logger.debug("Deleting schedules for schoolId: {}", schoolId);
-            int schedulesDeleted = scheduleRepository.deleteByTimetableSchoolId(schoolId);
-            logger.info("Deleted {} schedules for schoolId: {}", schedulesDeleted, schoolId);
-
-            logger.debug("Deleting timetable for schoolId: {}", schoolId);
-            int timetablesDeleted = timetableRepository.deleteBySchoolId(schoolId);
-            logger.info("Deleted {} timetables for schoolId: {}", timetablesDeleted, schoolId);
-
-            // Verify deletion
-            Optional<Timetable> existingTimetable = timetableRepository.findBySchoolId(schoolId);
-            if (existingTimetable.isPresent()) {
-                logger.error("Timetable with schoolId: {} still exists after deletion", schoolId);
-                throw new IllegalStateException("Failed to delete existing timetable for schoolId: " + schoolId);
+            logger.info("Built solver snapshot with {} lessons, {} subjects", snapshot.lessonCount(), snapshot.subjectCount());
+            logEligibilityGaps(snapshot);
+            GeneticTimetable bestTimetable = solve(solver, snapshot, progress, size, timeoutSeconds);
+            logger.info("Optimization complete, best timetable has {} schedules", bestTimetable.assignedCount());
+            if (reoptimize) {
+                logger.info("Re-optimized timetable changes {} of {} stored lessons",
+                        bestTimetable.changedLessons(), snapshot.referenceCount());
             }
-            logger.debug("Verified no timetable exists for schoolId: {}", schoolId);
-
-            logger.debug("Deleting classes for schoolId: {}", schoolId);
-            int classesDeleted = classRepository.deleteBySchoolId(schoolId);
-            logger.info("Deleted {} classes for schoolId: {}", classesDeleted, schoolId);
 
-            // Create new classes
-            logger.debug("Creating new classes for schoolId: {}", schoolId);
-            List<Class> classes = createClasses(schoolId, programClassCounts);
-            logger.info("Created {} classes for schoolId: {}", classes.size(), schoolId);
+            if (progress.isCancelled() && !Boolean.TRUE.equals(request.getKeepPartialResult())) {
+                logger.info("Generation cancelled, stored timetable for schoolId: {} left unchanged", schoolId);
+                return null;
+            }
 
-            // Fetch school data
-            logger.debug("Fetching school data for schoolId: {}", schoolId);
-            List<TimeSlot> timeSlots = timeSlotRepository.findBySchoolId(schoolId);
-            List<Teacher> teachers = teacherRepository.findBySchoolId(schoolId);
-            List<Classroom> classrooms = classroomRepository.findBySchoolId(schoolId);
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities = teacherAvailabilityRepository.findAll().stream()
-                    .collect(Collectors.groupingBy(ta -> ta.getTeacher().getId()));
-            logger.info("Fetched {} time slots, {} teachers, {} classrooms", timeSlots.size(), teachers.size(), classrooms.size());
-
-            // Get program requirements
-            logger.debug("Fetching program requirements");
-            Map<Long, List<ProgramSubject>> programRequirements = programs.stream()
-                    .collect(Collectors.toMap(Program::getId, p -> programSubjectRepository.findByProgramId(p.getId())));
-            logger.info("Fetched requirements for {} programs", programRequirements.size());
-
-            // Initialize population
-            logger.debug("Initializing population");
-            List<GeneticTimetable> population = initializePopulation(classes, programRequirements, timeSlots, teachers, classrooms, teacherAvailabilities);
-            logger.info("Initialized population with {} timetables", population.size());
-
-            // Optimize using genetic algorithm
-            logger.debug("Starting genetic algorithm optimization");
-            GeneticTimetable bestTimetable = optimizeTimetable(population, classes, timeSlots, teachers, classrooms, teacherAvailabilities);
-            logger.info("Optimization complete, best timetable has {} schedules", bestTimetable.getSchedules().size());
-
-            // Save timetable
-            logger.debug("Saving timetable for schoolId: {}", schoolId);
-            Timetable savedTimetable = saveTimetable(bestTimetable, schoolId);
-            logger.info("Timetable saved successfully with ID: {} for schoolId: {}", savedTimetable.getId(), schoolId);
-
-            return mapToTimetableDTO(savedTimetable);
+            // Save
+            return save(schoolId, !reoptimize, bestTimetable, snapshot, classes, subjects, data, progress, size);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected timetable generation for schoolId: {}: {}", request.getSchoolId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to generate timetable for schoolId: {}", request.getSchoolId(), e);
             throw new RuntimeException("Timetable generation failed: " + e.getMessage(), e);
         }
     }
 
-    private List<Class> createClasses(Long schoolId, Map<Long, Integer> programClassCounts) {
-        logger.debug("Creating classes for schoolId: {}", schoolId);
-        List<Class> classes = new ArrayList<>();
-        School school = schoolRepository.findById(schoolId)
-                .orElseThrow(() -> new IllegalArgumentException("School not found: " + schoolId));
-        for (Map.Entry<Long, Integer> entry : programClassCounts.entrySet()) {
-            Long programId = entry.getKey();
-            int count = entry.getValue();
-            Program program = programRepository.findById(programId)
-                    .orElseThrow(() -> new IllegalArgumentException("Program not found: " + programId));
-            for (int i = 1; i <= count; i++) {
-                Class clazz = new Class();
-                clazz.setSchool(school);
-                clazz.setProgram(program);
-                clazz.setName(program.getName() + " Class " + i);
-                clazz.setStudentCount(35); // Default from DB
-                classes.add(classRepository.save(clazz));
-                logger.debug("Created class: {} for programId: {}", clazz.getName(), programId);
-            }
+    // Re-solves only the lessons a class, teacher or classroom touches in the stored timetable; every other
+    // lesson stays where it is as fixed occupancy. Lessons the stored timetable no longer covers are freed too.
+    // Meant for interactive edits, so it runs on its own, much shorter time limit.
+    public TimetableDTO resolveScope(Long timetableId, PartialResolveRequestDTO scope) {
+        int scopes = (scope.getClassId() != null ? 1 : 0) + (scope.getTeacherId() != null ? 1 : 0)
+                + (scope.getClassroomId() != null ? 1 : 0);
+        if (scopes != 1) {
+            throw new IllegalArgumentException("Exactly one of classId, teacherId or classroomId is required");
+        }
+        logger.info("Starting partial re-solve of timetable {} for classId: {}, teacherId: {}, classroomId: {}",
+                timetableId, scope.getClassId(), scope.getTeacherId(), scope.getClassroomId());
+        TimetableSolver solver = solver(scope.getSolver());
+        SolverProgress progress = new SolverProgress();
+        progress.start();
+
+        // Load
+        Timer.Sample load = Timer.start();
+        SchoolData data = readOnlyTransaction().execute(status -> loadStoredTimetable(timetableRepository.findById(timetableId)
+                .orElseThrow(() -> new IllegalArgumentException("Timetable not found: " + timetableId))));
+        Long schoolId = data.schoolId;
+        progress.setSchoolId(schoolId);
+        String size = TimetableMetrics.sizeBucket(data.classes.size());
+        load.stop(metrics.phase("load", size));
+        int clazz = indexOrMissing(data.classes.size(), c -> data.classes.get(c).getId(), scope.getClassId());
+        if (scope.getClassId() != null && clazz < 0) {
+            throw new IllegalArgumentException("Class " + scope.getClassId() + " is not part of timetable " + timetableId);
+        }
+        // Teachers and classrooms are indexed in load order, as in the snapshot
+        int teacher = indexOrMissing(data.teachers.size(), t -> data.teachers.get(t).getId(), scope.getTeacherId());
+        if (scope.getTeacherId() != null && teacher < 0) {
+            throw new IllegalArgumentException("Teacher " + scope.getTeacherId() + " does not belong to the school of timetable " + timetableId);
+        }
+        int room = indexOrMissing(data.classrooms.size(), r -> data.classrooms.get(r).getId(), scope.getClassroomId());
+        if (scope.getClassroomId() != null && room < 0) {
+            throw new IllegalArgumentException("Classroom " + scope.getClassroomId() + " does not belong to the school of timetable " + timetableId);
         }
-        return classes;
-    }
 
-    private List<GeneticTimetable> initializePopulation(
-            List<Class> classes,
-            Map<Long, List<ProgramSubject>> requirements,
-            List<TimeSlot> timeSlots,
-            List<Teacher> teachers,
-            List<Classroom> classrooms,
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities) {
-        logger.debug("Initializing population with {} classes", classes.size());
-        List<GeneticTimetable> population = new ArrayList<>();
-        Random random = new Random();
-
-        for (int i = 0; i < populationSize; i++) {
-            GeneticTimetable timetable = new GeneticTimetable();
-            for (Class clazz : classes) {
-                List<ProgramSubject> programSubjects = requirements.get(clazz.getProgram().getId());
-                for (ProgramSubject ps : programSubjects) {
-                    for (int h = 0; h < ps.getHoursPerWeek(); h++) {
-                        Schedule schedule = createRandomSchedule(
-                                clazz, ps.getSubject(), timeSlots, teachers, classrooms, teacherAvailabilities, random, timetable);
-                        if (schedule != null) {
-                            timetable.getSchedules().add(schedule);
-                        }
-                    }
+        try {
+            // Compute
+            List<Subject> subjects = collectSubjects(data.requirements, data.teachers);
+            ProblemSnapshot problem = ProblemSnapshot.from(data.classes, data.programs, subjects, data.teachers,
+                    data.classrooms, data.timeSlots, data.requirements, data.teacherAvailabilities);
+            int[][] stored = mapStoredLessons(problem, data.classes, data.storedLessons);
+            int[][] frozen = {stored[0].clone(), stored[1].clone(), stored[2].clone()};
+            int freed = 0;
+            for (int l = 0; l < problem.lessonCount(); l++) {
+                if (frozen[0][l] == GeneticTimetable.UNASSIGNED || (clazz >= 0 && problem.lessonClass(l) == clazz)
+                        || (teacher >= 0 && frozen[1][l] == teacher) || (room >= 0 && frozen[2][l] == room)) {
+                    frozen[0][l] = GeneticTimetable.UNASSIGNED;
+                    freed++;
                 }
             }
-            population.add(timetable);
-            logger.debug("Created timetable {} with {} schedules", i, timetable.getSchedules().size());
+            ProblemSnapshot snapshot = problem.withReference(stored, changePenalty)
+                    .withFixed(frozen);
+            logger.info("Re-solving {} of {} lessons, {} stay fixed", freed, problem.lessonCount(), snapshot.fixedCount());
+            GeneticTimetable bestTimetable = solve(solver, snapshot, progress, size, resolveTimeoutSeconds);
+            logger.info("Partial re-solve complete, changes {} of {} freed lessons",
+                    bestTimetable.changedLessons(), snapshot.referenceCount());
+
+            // Save
+            return save(schoolId, false, bestTimetable, snapshot, data.classes, subjects, data, progress, size);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected re-solve of timetable {}: {}", timetableId, e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to re-solve timetable {}", timetableId, e);
+            throw new RuntimeException("Timetable re-solve failed: " + e.getMessage(), e);
         }
-        return population;
     }
 
-    private Schedule createRandomSchedule(
-            Class clazz,
-            Subject subject,
-            List<TimeSlot> timeSlots,
-            List<Teacher> teachers,
-            List<Classroom> classrooms,
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities,
-            Random random,
-            GeneticTimetable timetable) {
-        logger.debug("Creating random schedule for classId: {}, subjectId: {}", clazz.getId(), subject.getId());
-        List<Teacher> eligibleTeachers = teachers.stream()
-                .filter(t -> t.getSubject().getId().equals(subject.getId()) &&
-                        t.getPrograms().stream().anyMatch(p -> p.getId().equals(clazz.getProgram().getId())))
-                .filter(t -> isTeacherAvailable(t, teacherAvailabilities.getOrDefault(t.getId(), Collections.emptyList()), timetable))
-                .collect(Collectors.toList());
-        if (eligibleTeachers.isEmpty()) {
-            logger.warn("No eligible teachers for subject {} in program {}", subject.getId(), clazz.getProgram().getId());
-            return null;
+    // Null or blank selects the configured default
+    private TimetableSolver solver(String name) {
+        String key = name == null || name.isBlank() ? defaultSolver : name.trim().toLowerCase(Locale.ROOT);
+        TimetableSolver solver = solvers.get(key);
+        if (solver == null) {
+            throw new IllegalArgumentException("Unknown solver: " + key + ", expected one of " + solvers.keySet());
         }
+        return solver;
+    }
 
-        String requiredRoomType = subject.getRoomType();
-        List<Classroom> eligibleClassrooms = classrooms.stream()
-                .filter(c -> c.getType().equalsIgnoreCase(requiredRoomType))
-                .collect(Collectors.toList());
-        if (eligibleClassrooms.isEmpty()) {
-            logger.warn("No classrooms of type {} for subject {}", requiredRoomType, subject.getId());
-            return null;
-        }
+    private GeneticTimetable solve(TimetableSolver solver, ProblemSnapshot snapshot, SolverProgress progress, String size,
+                                   int timeLimitSeconds) {
+        progress.setListener(metrics.solverListener(size));
+        SolverResult result = metrics.phase("solve", size).record(() ->
+                solver.solve(snapshot, new SolverBudget(timeLimitSeconds * 1000L, randomSeed), progress));
+        progress.setStopReason(result.getStopReason());
+        metrics.recordResult(size, result);
+        logger.info("Solver {} finished in {} ms after {} iterations ({}), score: {}",
+                result.getSolver(), result.getElapsedMillis(), result.getIterations(), result.getStopReason(),
+                result.getScore());
+        return result.getSolution();
+    }
 
-        Collections.shuffle(timeSlots, random);
-        for (TimeSlot timeSlot : timeSlots) {
-            if (timetable.getSchedules().stream().noneMatch(s ->
-                    s.getClassEntity().getId().equals(clazz.getId()) && s.getTimeSlot().getId().equals(timeSlot.getId()))) {
-                Teacher teacher = eligibleTeachers.get(random.nextInt(eligibleTeachers.size()));
-                Classroom classroom = eligibleClassrooms.get(random.nextInt(eligibleClassrooms.size()));
-                if (timetable.getSchedules().stream().noneMatch(s ->
-                        (s.getTeacher().getId().equals(teacher.getId()) ||
-                                s.getClassroom().getId().equals(classroom.getId())) &&
-                                s.getTimeSlot().getId().equals(timeSlot.getId()))) {
-                    logger.debug("Assigned schedule: classId={}, teacherId={}, classroomId={}, timeSlotId={}",
-                            clazz.getId(), teacher.getId(), classroom.getId(), timeSlot.getId());
-                    return new Schedule(null, clazz, subject, teacher, classroom, timeSlot);
-                }
+    // Replaces the stored timetable with the solution in one write transaction; new classes are persisted
+    // first when replaceClasses is set, otherwise the existing classes are kept
+    private TimetableDTO save(Long schoolId, boolean replaceClasses, GeneticTimetable bestTimetable, ProblemSnapshot snapshot,
+                              List<Class> classes, List<Subject> subjects, SchoolData data, SolverProgress progress, String size) {
+        logger.debug("Saving timetable for schoolId: {}", schoolId);
+        progress.setPhase(SolverProgress.Phase.SAVING);
+        Timetable savedTimetable = writeTransaction().execute(status -> {
+            if (replaceClasses) {
+                replaceSchoolData(schoolId, classes, size);
+            } else {
+                metrics.phase("deletion", size).record(() -> deleteTimetable(schoolId));
             }
+            return metrics.phase("save", size).record(() -> {
+                List<Schedule> schedules = toSchedules(bestTimetable, snapshot, classes, subjects, data.teachers, data.classrooms, data.timeSlots);
+                return saveTimetable(schedules, schoolId);
+            });
+        });
+        logger.info("Timetable saved successfully with ID: {} for schoolId: {}", savedTimetable.getId(), schoolId);
+
+        TimetableDTO result = readOnlyTransaction().execute(status -> mapToTimetableDTO(savedTimetable));
+        if (snapshot.hasReference()) {
+            result.setChangedLessons(bestTimetable.changedLessons());
         }
-        logger.debug("No valid schedule found for classId: {}, subjectId: {}", clazz.getId(), subject.getId());
-        return null;
+        if (progress.getStopReason() != null) {
+            result.setStopReason(progress.getStopReason().name());
+        }
+        result.setHardScore(bestTimetable.hardScore());
+        result.setSoftScore(bestTimetable.softScore());
+        return result;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private TransactionTemplate writeTransaction() {
+        return new TransactionTemplate(transactionManager);
     }
 
-    private boolean isTeacherAvailable(Teacher teacher, List<TeacherAvailability> availabilities, GeneticTimetable timetable) {
-        int assignedHours = timetable.getSchedules().stream()
-                .filter(s -> s.getTeacher().getId().equals(teacher.getId()))
-                .mapToInt(s -> 1)
-                .sum();
-        if (assignedHours >= teacher.getMaxHoursPerWeek()) {
-            return false;
+    // Each read is a single query so the solver never goes back to the database
+    private SchoolData loadSchoolData(Long schoolId, Map<Long, Integer> programClassCounts) {
+        logger.debug("Validating programClassCounts: {}", programClassCounts);
+        SchoolData data = new SchoolData();
+        data.schoolId = schoolId;
+        data.programs = programRepository.findAllById(programClassCounts.keySet());
+        if (data.programs.size() != programClassCounts.size()) {
+            logger.error("Invalid program IDs: {}", programClassCounts.keySet());
+            throw new IllegalArgumentException("Invalid program IDs: " + programClassCounts.keySet());
+        }
+        if (!schoolRepository.existsById(schoolId)) {
+            throw new IllegalArgumentException("School not found: " + schoolId);
         }
-        return availabilities.isEmpty() ||
-                availabilities.stream().anyMatch(ta -> ta.getIsAvailable());
+
+        loadSchoolResources(schoolId, data);
+        return data;
     }
 
-    private GeneticTimetable optimizeTimetable(
-            List<GeneticTimetable> population,
-            List<Class> classes,
-            List<TimeSlot> timeSlots,
-            List<Teacher> teachers,
-            List<Classroom> classrooms,
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities) {
-        logger.debug("Starting timetable optimization");
-        long startTime = System.currentTimeMillis();
-        Random random = new Random();
-
-        for (int gen = 0; gen < maxGenerations && (System.currentTimeMillis() - startTime) / 1000 < timeoutSeconds; gen++) {
-            List<Integer> fitnessScores = population.stream()
-                    .map(t -> calculateFitness(t, classes, timeSlots))
-                    .collect(Collectors.toList());
-
-            GeneticTimetable best = population.get(fitnessScores.indexOf(Collections.max(fitnessScores)));
-            if (isOptimal(best, classes)) {
-                logger.info("Optimal timetable found at generation {}", gen);
-                return repairTimetable(best, classes, timeSlots, teachers, classrooms, teacherAvailabilities);
-            }
+    // The stored timetable's classes define the problem; its schedules are kept as plain id rows
+    // (class, subject, teacher, classroom, time slot) so nothing lazy is touched after the transaction
+    private SchoolData loadStoredTimetable(Timetable stored) {
+        Long schoolId = stored.getSchool().getId();
+        SchoolData data = new SchoolData();
+        data.schoolId = schoolId;
+        data.classes = new ArrayList<>(classRepository.findBySchoolId(schoolId));
+        data.classes.sort(Comparator.comparing(Class::getId));
+        Set<Long> programIds = data.classes.stream()
+                .map(c -> c.getProgram().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        data.programs = programRepository.findAllById(programIds);
+        data.storedLessons = scheduleRepository.findByTimetableId(stored.getId()).stream()
+                .map(s -> new long[]{s.getClassEntity().getId(), s.getSubject().getId(), s.getTeacher().getId(),
+                        s.getClassroom().getId(), s.getTimeSlot().getId()})
+                .collect(Collectors.toList());
+        logger.info("Loaded stored timetable {} with {} schedules over {} classes",
+                stored.getId(), data.storedLessons.size(), data.classes.size());
+        loadSchoolResources(schoolId, data);
+        return data;
+    }
 
-            List<GeneticTimetable> newPopulation = new ArrayList<>();
-            List<Integer> sortedIndices = IntStream.range(0, fitnessScores.size())
-                    .boxed()
-                    .sorted((i, j) -> fitnessScores.get(j).compareTo(fitnessScores.get(i)))
-                    .collect(Collectors.toList());
-            for (int i = 0; i < 2 && i < population.size(); i++) {
-                newPopulation.add(new GeneticTimetable(population.get(sortedIndices.get(i)).getSchedules()));
-            }
+    private void loadSchoolResources(Long schoolId, SchoolData data) {
+        logger.debug("Fetching school data for schoolId: {}", schoolId);
+        data.timeSlots = timeSlotRepository.findBySchoolId(schoolId);
+        data.teachers = teacherRepository.findWithSubjectAndProgramsBySchoolId(schoolId);
+        data.classrooms = classroomRepository.findBySchoolId(schoolId);
+        data.teacherAvailabilities = teacherAvailabilityRepository.findByTeacherSchoolId(schoolId).stream()
+                .collect(Collectors.groupingBy(ta -> ta.getTeacher().getId()));
+        logger.info("Fetched {} time slots, {} teachers, {} classrooms", data.timeSlots.size(), data.teachers.size(), data.classrooms.size());
+
+        logger.debug("Fetching program requirements");
+        data.requirements = loadRequirements(data.programs);
+        logger.info("Fetched requirements for {} programs", data.requirements.size());
+    }
 
-            while (newPopulation.size() < populationSize) {
-                GeneticTimetable parent1 = selectParent(population, fitnessScores, random);
-                GeneticTimetable parent2 = selectParent(population, fitnessScores, random);
-                GeneticTimetable child = crossover(parent1, parent2, random);
-                if (random.nextDouble() < mutationRate) {
-                    mutate(child, timeSlots, teachers, classrooms, teacherAvailabilities, random);
+    // Maps each stored schedule onto the next free lesson of its class and subject, as slot, teacher and room
+    // arrays per lesson. Schedules whose class, subject, teacher, room or slot is gone, or that exceed the
+    // current requirement, have no lesson to keep
+    private int[][] mapStoredLessons(ProblemSnapshot snapshot, List<Class> classes, List<long[]> storedLessons) {
+        int lessons = snapshot.lessonCount();
+        int[] slots = new int[lessons];
+        int[] teachers = new int[lessons];
+        int[] rooms = new int[lessons];
+        Arrays.fill(slots, GeneticTimetable.UNASSIGNED);
+        Arrays.fill(teachers, GeneticTimetable.UNASSIGNED);
+        Arrays.fill(rooms, GeneticTimetable.UNASSIGNED);
+
+        Map<Long, Integer> classIndex = denseIndex(classes.size(), c -> classes.get(c).getId());
+        Map<Long, Integer> subjectIndex = denseIndex(snapshot.subjectCount(), snapshot::subjectId);
+        Map<Long, Integer> teacherIndex = denseIndex(snapshot.teacherCount(), snapshot::teacherId);
+        Map<Long, Integer> roomIndex = denseIndex(snapshot.roomCount(), snapshot::roomId);
+        Map<Long, Integer> slotIndex = denseIndex(snapshot.slotCount(), snapshot::slotId);
+        int mapped = 0;
+        for (long[] stored : storedLessons) {
+            Integer clazz = classIndex.get(stored[0]);
+            Integer subject = subjectIndex.get(stored[1]);
+            Integer teacher = teacherIndex.get(stored[2]);
+            Integer room = roomIndex.get(stored[3]);
+            Integer slot = slotIndex.get(stored[4]);
+            if (clazz == null || subject == null || teacher == null || room == null || slot == null) continue;
+            for (int l = snapshot.classLessonStart(clazz); l < snapshot.classLessonEnd(clazz); l++) {
+                if (snapshot.lessonSubject(l) == subject && slots[l] == GeneticTimetable.UNASSIGNED) {
+                    slots[l] = slot;
+                    teachers[l] = teacher;
+                    rooms[l] = room;
+                    mapped++;
+                    break;
                 }
-                newPopulation.add(child);
-            }
-            population = newPopulation;
-
-            if (gen % 100 == 0) {
-                logger.info("Generation {}: Best Fitness = {}", gen, calculateFitness(best, classes, timeSlots));
             }
         }
-
-        GeneticTimetable best = population.stream()
-                .max(Comparator.comparingInt(t -> calculateFitness(t, classes, timeSlots)))
-                .orElse(population.get(0));
-        logger.info("Optimization ended, best fitness: {}", calculateFitness(best, classes, timeSlots));
-        return repairTimetable(best, classes, timeSlots, teachers, classrooms, teacherAvailabilities);
+        logger.info("Mapped {} of {} stored schedules onto {} lessons", mapped, storedLessons.size(), lessons);
+        return new int[][]{slots, teachers, rooms};
     }
 
-    private int calculateFitness(GeneticTimetable timetable, List<Class> classes, List<TimeSlot> timeSlots) {
-        logger.debug("Calculating fitness for timetable with {} schedules", timetable.getSchedules().size());
-        int score = 0;
-
-        Map<Long, Map<Long, Integer>> classSubjectHours = new HashMap<>();
-        for (Class clazz : classes) {
-            classSubjectHours.putIfAbsent(clazz.getId(), new HashMap<>());
-        }
-        for (Schedule s : timetable.getSchedules()) {
-            classSubjectHours.get(s.getClassEntity().getId())
-                    .merge(s.getSubject().getId(), 1, Integer::sum);
+    // Maps each pin onto the next free lesson of its class and subject. A missing teacher or room is the least
+    // loaded eligible one still free at that slot; pins that clash with each other or break a hard rule are rejected
+    static int[][] pinLessons(ProblemSnapshot snapshot, List<Class> classes, List<PinnedLessonDTO> pins) {
+        int lessons = snapshot.lessonCount();
+        int slotCount = snapshot.slotCount();
+        int[] slots = new int[lessons];
+        int[] teachers = new int[lessons];
+        int[] rooms = new int[lessons];
+        Arrays.fill(slots, GeneticTimetable.UNASSIGNED);
+        Arrays.fill(teachers, GeneticTimetable.UNASSIGNED);
+        Arrays.fill(rooms, GeneticTimetable.UNASSIGNED);
+        boolean[] classBusy = new boolean[snapshot.classCount() * slotCount];
+        boolean[] teacherBusy = new boolean[snapshot.teacherCount() * slotCount];
+        boolean[] roomBusy = new boolean[snapshot.roomCount() * slotCount];
+        int[] teacherHours = new int[snapshot.teacherCount()];
+
+        // Classes are numbered per program in list order, as buildClasses names them
+        Map<Long, List<Integer>> programClasses = new HashMap<>();
+        for (int c = 0; c < classes.size(); c++) {
+            programClasses.computeIfAbsent(classes.get(c).getProgram().getId(), k -> new ArrayList<>()).add(c);
         }
-        for (Class clazz : classes) {
-            List<ProgramSubject> requirements = programSubjectRepository.findByProgramId(clazz.getProgram().getId());
-            for (ProgramSubject ps : requirements) {
-                int actual = classSubjectHours.getOrDefault(clazz.getId(), Collections.emptyMap())
-                        .getOrDefault(ps.getSubject().getId(), 0);
-                if (actual == ps.getHoursPerWeek()) {
-                    score += 100;
-                } else {
-                    score -= Math.abs(actual - ps.getHoursPerWeek()) * 1000;
+        Map<Long, Integer> subjectIndex = denseIndex(snapshot.subjectCount(), snapshot::subjectId);
+        Map<Long, Integer> teacherIndex = denseIndex(snapshot.teacherCount(), snapshot::teacherId);
+        Map<Long, Integer> roomIndex = denseIndex(snapshot.roomCount(), snapshot::roomId);
+        Map<Long, Integer> slotIndex = denseIndex(slotCount, snapshot::slotId);
+
+        for (PinnedLessonDTO pin : pins) {
+            List<Integer> candidates = programClasses.getOrDefault(pin.getProgramId(), Collections.emptyList());
+            if (pin.getClassNumber() == null || pin.getClassNumber() < 1 || pin.getClassNumber() > candidates.size()) {
+                throw new IllegalArgumentException("Pinned lesson refers to unknown class " + pin.getClassNumber()
+                        + " of program " + pin.getProgramId());
+            }
+            int clazz = candidates.get(pin.getClassNumber() - 1);
+            Integer subject = subjectIndex.get(pin.getSubjectId());
+            Integer slot = slotIndex.get(pin.getTimeSlotId());
+            if (subject == null || slot == null) {
+                throw new IllegalArgumentException("Pinned lesson refers to unknown subject " + pin.getSubjectId()
+                        + " or time slot " + pin.getTimeSlotId());
+            }
+            int lesson = -1;
+            for (int l = snapshot.classLessonStart(clazz); l < snapshot.classLessonEnd(clazz); l++) {
+                if (snapshot.lessonSubject(l) == subject && slots[l] == GeneticTimetable.UNASSIGNED) {
+                    lesson = l;
+                    break;
                 }
             }
-        }
+            if (lesson < 0) {
+                throw new IllegalArgumentException("More lessons pinned than required for subject " + pin.getSubjectId()
+                        + " in class " + pin.getClassNumber() + " of program " + pin.getProgramId());
+            }
+            if (classBusy[clazz * slotCount + slot]) {
+                throw new IllegalArgumentException("Two pinned lessons share time slot " + pin.getTimeSlotId()
+                        + " in class " + pin.getClassNumber() + " of program " + pin.getProgramId());
+            }
 
-        Map<Long, Set<Long>> teacherSlots = new HashMap<>();
-        Map<Long, Set<Long>> classroomSlots = new HashMap<>();
-        Map<Long, Set<Long>> classSlots = new HashMap<>();
-        for (Schedule s : timetable.getSchedules()) {
-            Long timeSlotId = s.getTimeSlot().getId();
-            teacherSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            classroomSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            classSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            if (!teacherSlots.get(timeSlotId).add(s.getTeacher().getId())) score -= 1000;
-            if (!classroomSlots.get(timeSlotId).add(s.getClassroom().getId())) score -= 1000;
-            if (!classSlots.get(timeSlotId).add(s.getClassEntity().getId())) score -= 1000;
-        }
+            int teacher = -1;
+            if (pin.getTeacherId() != null) {
+                Integer index = teacherIndex.get(pin.getTeacherId());
+                if (index == null || !snapshot.isEligible(index, clazz, subject)) {
+                    throw new IllegalArgumentException("Teacher " + pin.getTeacherId() + " cannot teach pinned subject " + pin.getSubjectId());
+                }
+                if (!snapshot.isTeacherAvailable(index)) {
+                    throw new IllegalArgumentException("Teacher " + pin.getTeacherId() + " is not available for pinned subject " + pin.getSubjectId());
+                }
+                teacher = index;
+            } else {
+                for (int t : snapshot.eligibility().teachers(snapshot.classProgram(clazz), subject)) {
+                    if (!teacherBusy[t * slotCount + slot] && snapshot.isTeacherAvailable(t)
+                            && teacherHours[t] < snapshot.teacherMaxHours(t)
+                            && (teacher < 0 || teacherHours[t] < teacherHours[teacher])) {
+                        teacher = t;
+                    }
+                }
+            }
+            if (teacher < 0 || teacherBusy[teacher * slotCount + slot] || teacherHours[teacher] >= snapshot.teacherMaxHours(teacher)) {
+                throw new IllegalArgumentException("No free teacher for pinned subject " + pin.getSubjectId()
+                        + " at time slot " + pin.getTimeSlotId());
+            }
 
-        for (Schedule s : timetable.getSchedules()) {
-            if (s.getClassroom().getType().equalsIgnoreCase(s.getSubject().getRoomType())) {
-                score += 10;
+            int room = -1;
+            if (pin.getClassroomId() != null) {
+                Integer index = roomIndex.get(pin.getClassroomId());
+                if (index == null || !snapshot.roomMatches(index, subject)) {
+                    throw new IllegalArgumentException("Classroom " + pin.getClassroomId() + " does not suit pinned subject " + pin.getSubjectId());
+                }
+                room = index;
             } else {
-                score -= 1000;
+                for (int r : snapshot.eligibility().rooms(subject)) {
+                    if (!roomBusy[r * slotCount + slot]) {
+                        room = r;
+                        break;
+                    }
+                }
             }
+            if (room < 0 || roomBusy[room * slotCount + slot]) {
+                throw new IllegalArgumentException("No free classroom for pinned subject " + pin.getSubjectId()
+                        + " at time slot " + pin.getTimeSlotId());
+            }
+
+            slots[lesson] = slot;
+            teachers[lesson] = teacher;
+            rooms[lesson] = room;
+            classBusy[clazz * slotCount + slot] = true;
+            teacherBusy[teacher * slotCount + slot] = true;
+            roomBusy[room * slotCount + slot] = true;
+            teacherHours[teacher]++;
         }
+        return new int[][]{slots, teachers, rooms};
+    }
 
-        for (Schedule s : timetable.getSchedules()) {
-            boolean eligible = s.getTeacher().getSubject().getId().equals(s.getSubject().getId()) &&
-                    s.getTeacher().getPrograms().stream().anyMatch(p -> p.getId().equals(s.getClassEntity().getProgram().getId()));
-            score += eligible ? 10 : -1000;
+    // Dense index of the given id, -1 when the id is null or unknown
+    private static int indexOrMissing(int count, IntFunction<Long> id, Long wanted) {
+        if (wanted == null) return -1;
+        for (int i = 0; i < count; i++) {
+            if (wanted.equals(id.apply(i))) return i;
         }
+        return -1;
+    }
 
-        Map<Long, Integer> teacherHours = timetable.getSchedules().stream()
-                .collect(Collectors.groupingBy(
-                        s -> s.getTeacher().getId(),
-                        Collectors.summingInt(s -> 1)));
-        for (Map.Entry<Long, Integer> entry : teacherHours.entrySet()) {
-            Teacher t = teacherRepository.findById(entry.getKey()).orElseThrow();
-            if (entry.getValue() <= t.getMaxHoursPerWeek()) {
-                score += 10;
-            } else {
-                score -= (entry.getValue() - t.getMaxHoursPerWeek()) * 1000;
-            }
+    private static Map<Long, Integer> denseIndex(int count, IntFunction<Long> id) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            index.put(id.apply(i), i);
         }
+        return index;
+    }
 
-        double avgHours = teacherHours.values().stream().mapToInt(Integer::intValue).average().orElse(0);
-        double variance = teacherHours.values().stream()
-                .mapToDouble(h -> Math.pow(h - avgHours, 2))
-                .average()
-                .orElse(0);
-        score -= (int) variance * 10;
-
-        for (Class clazz : classes) {
-            Map<Long, List<Schedule>> subjectSchedules = timetable.getSchedules().stream()
-                    .filter(s -> s.getClassEntity().getId().equals(clazz.getId()))
-                    .collect(Collectors.groupingBy(s -> s.getSubject().getId()));
-            for (List<Schedule> schedules : subjectSchedules.values()) {
-                Set<String> days = schedules.stream()
-                        .map(s -> s.getTimeSlot().getDay())
-                        .collect(Collectors.toSet());
-                score += days.size() * 5;
-            }
+    // Deletes the school's schedules, timetable and classes in dependency order and persists the new classes
+    private void replaceSchoolData(Long schoolId, List<Class> classes, String size) {
+        metrics.phase("deletion", size).record(() -> {
+            deleteTimetable(schoolId);
+
+            logger.debug("Deleting classes for schoolId: {}", schoolId);
+            int classesDeleted = classRepository.deleteBySchoolId(schoolId);
+            logger.info("Deleted {} classes for schoolId: {}", classesDeleted, schoolId);
+        });
+
+        metrics.phase("class.creation", size).record(() -> {
+            School school = schoolRepository.getReferenceById(schoolId);
+            classes.forEach(clazz -> clazz.setSchool(school));
+            classRepository.saveAll(classes);
+            logger.info("Created {} classes for schoolId: {}", classes.size(), schoolId);
+        });
+    }
+
+    private void deleteTimetable(Long schoolId) {
+        logger.debug("Deleting schedules for schoolId: {}", schoolId);
+        int schedulesDeleted = scheduleRepository.deleteByTimetableSchoolId(schoolId);
+        logger.info("Deleted {} schedules for schoolId: {}", schedulesDeleted, schoolId);
+
+        logger.debug("Deleting timetable for schoolId: {}", schoolId);
+        int timetablesDeleted = timetableRepository.deleteBySchoolId(schoolId);
+        logger.info("Deleted {} timetables for schoolId: {}", timetablesDeleted, schoolId);
+
+        // Verify deletion
+        Optional<Timetable> existingTimetable = timetableRepository.findBySchoolId(schoolId);
+        if (existingTimetable.isPresent()) {
+            logger.error("Timetable with schoolId: {} still exists after deletion", schoolId);
+            throw new IllegalStateException("Failed to delete existing timetable for schoolId: " + schoolId);
         }
+        logger.debug("Verified no timetable exists for schoolId: {}", schoolId);
+    }
 
-        logger.debug("Fitness score: {}", score);
-        return score;
-    }
-
-    private boolean isOptimal(GeneticTimetable timetable, List<Class> classes) {
-        logger.debug("Checking if timetable is optimal");
-        Map<Long, Map<Long, Integer>> classSubjectHours = timetable.getSchedules().stream()
-                .collect(Collectors.groupingBy(
-                        s -> s.getClassEntity().getId(),
-                        Collectors.groupingBy(
-                                s -> s.getSubject().getId(),
-                                Collectors.summingInt(s -> 1))));
-        for (Class clazz : classes) {
-            List<ProgramSubject> requirements = programSubjectRepository.findByProgramId(clazz.getProgram().getId());
-            for (ProgramSubject ps : requirements) {
-                int actual = classSubjectHours.getOrDefault(clazz.getId(), Collections.emptyMap())
-                        .getOrDefault(ps.getSubject().getId(), 0);
-                if (actual != ps.getHoursPerWeek()) return false;
-            }
+    // Which required subjects cannot be staffed or housed, from the same index the solver uses
+    @Transactional
+    public EligibilityReportDTO getEligibilityReport(Long schoolId, List<Long> programIds) {
+        List<Program> programs = programRepository.findAllById(programIds);
+        if (programs.size() != new HashSet<>(programIds).size()) {
+            throw new IllegalArgumentException("Invalid program IDs: " + programIds);
+        }
+        List<Teacher> teachers = teacherRepository.findWithSubjectAndProgramsBySchoolId(schoolId);
+        List<Classroom> classrooms = classroomRepository.findBySchoolId(schoolId);
+        Map<Long, List<ProgramSubject>> programRequirements = loadRequirements(programs);
+        List<Subject> subjects = collectSubjects(programRequirements, teachers);
+        ProblemSnapshot snapshot = ProblemSnapshot.from(
+                Collections.emptyList(), programs, subjects, teachers, classrooms,
+                Collections.emptyList(), programRequirements, Collections.emptyMap());
+
+        EligibilityIndex eligibility = snapshot.eligibility();
+        Map<Long, List<Long>> subjectsWithoutTeachers = new LinkedHashMap<>();
+        for (int[] gap : eligibility.requirementsWithoutTeachers(snapshot)) {
+            subjectsWithoutTeachers.computeIfAbsent(snapshot.programId(gap[0]), k -> new ArrayList<>())
+                    .add(snapshot.subjectId(gap[1]));
         }
+        List<Long> subjectsWithoutClassrooms = eligibility.subjectsWithoutRooms(snapshot).stream()
+                .map(snapshot::subjectId)
+                .collect(Collectors.toList());
+        return new EligibilityReportDTO(schoolId, subjectsWithoutTeachers, subjectsWithoutClassrooms);
+    }
 
-        Map<Long, Set<Long>> teacherSlots = new HashMap<>();
-        Map<Long, Set<Long>> classroomSlots = new HashMap<>();
-        Map<Long, Set<Long>> classSlots = new HashMap<>();
-        for (Schedule s : timetable.getSchedules()) {
-            Long timeSlotId = s.getTimeSlot().getId();
-            if (!teacherSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>()).add(s.getTeacher().getId()) ||
-                    !classroomSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>()).add(s.getClassroom().getId()) ||
-                    !classSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>()).add(s.getClassEntity().getId())) {
-                return false;
-            }
-            if (!s.getClassroom().getType().equalsIgnoreCase(s.getSubject().getRoomType())) {
-                return false;
+    // Unsaved classes; the solver only needs their program, they are persisted with the timetable
+    private List<Class> buildClasses(Map<Long, Integer> programClassCounts, List<Program> programs) {
+        List<Class> classes = new ArrayList<>();
+        Map<Long, Program> programsById = programs.stream().collect(Collectors.toMap(Program::getId, p -> p));
+        for (Map.Entry<Long, Integer> entry : programClassCounts.entrySet()) {
+            Long programId = entry.getKey();
+            int count = entry.getValue();
+            Program program = programsById.get(programId);
+            if (program == null) {
+                throw new IllegalArgumentException("Program not found: " + programId);
             }
-            if (!s.getTeacher().getSubject().getId().equals(s.getSubject().getId()) ||
-                    s.getTeacher().getPrograms().stream().noneMatch(p -> p.getId().equals(s.getClassEntity().getProgram().getId()))) {
-                return false;
+            for (int i = 1; i <= count; i++) {
+                Class clazz = new Class();
+                clazz.setProgram(program);
+                clazz.setName(program.getName() + " Class " + i);
+                clazz.setStudentCount(35); // Default from DB
+                classes.add(clazz);
             }
         }
+        return classes;
+    }
 
-        Map<Long, Integer> teacherHours = timetable.getSchedules().stream()
-                .collect(Collectors.groupingBy(
-                        s -> s.getTeacher().getId(),
-                        Collectors.summingInt(s -> 1)));
-        for (Map.Entry<Long, Integer> entry : teacherHours.entrySet()) {
-            Teacher t = teacherRepository.findById(entry.getKey()).orElseThrow();
-            if (entry.getValue() > t.getMaxHoursPerWeek()) return false;
+    // One query for all programs, subjects fetched with it; programs without rows map to an empty list
+    private Map<Long, List<ProgramSubject>> loadRequirements(List<Program> programs) {
+        Map<Long, List<ProgramSubject>> requirements = new HashMap<>();
+        programs.forEach(p -> requirements.put(p.getId(), new ArrayList<>()));
+        List<Long> programIds = programs.stream().map(Program::getId).collect(Collectors.toList());
+        for (ProgramSubject ps : programSubjectRepository.findWithSubjectByProgramIdIn(programIds)) {
+            requirements.get(ps.getProgram().getId()).add(ps);
         }
-
-        logger.debug("Timetable is optimal");
-        return true;
+        return requirements;
     }
 
-    private GeneticTimetable selectParent(List<GeneticTimetable> population, List<Integer> fitnessScores, Random random) {
-        logger.debug("Selecting parent");
-        int tournamentSize = 3;
-        List<Integer> tournament = new ArrayList<>();
-        for (int i = 0; i < tournamentSize; i++) {
-            tournament.add(random.nextInt(population.size()));
-        }
-        return tournament.stream()
-                .map(population::get)
-                .max(Comparator.comparingInt(t -> fitnessScores.get(population.indexOf(t))))
-                .orElse(population.get(0));
-    }
-
-    private GeneticTimetable crossover(GeneticTimetable parent1, GeneticTimetable parent2, Random random) {
-        logger.debug("Performing crossover");
-        GeneticTimetable child = new GeneticTimetable();
-        Map<Long, List<Schedule>> p1ByClass = parent1.getSchedules().stream()
-                .collect(Collectors.groupingBy(s -> s.getClassEntity().getId()));
-        Map<Long, List<Schedule>> p2ByClass = parent2.getSchedules().stream()
-                .collect(Collectors.groupingBy(s -> s.getClassEntity().getId()));
-        for (Long classId : p1ByClass.keySet()) {
-            List<Schedule> schedules = random.nextBoolean() ? p1ByClass.get(classId) : p2ByClass.getOrDefault(classId, Collections.emptyList());
-            child.getSchedules().addAll(schedules.stream()
-                    .map(s -> new Schedule(null, s.getClassEntity(), s.getSubject(), s.getTeacher(), s.getClassroom(), s.getTimeSlot()))
-                    .collect(Collectors.toList()));
-        }
-        return child;
+    private List<Subject> collectSubjects(Map<Long, List<ProgramSubject>> requirements, List<Teacher> teachers) {
+        Map<Long, Subject> subjects = new LinkedHashMap<>();
+        requirements.values().forEach(list -> list.forEach(ps -> subjects.putIfAbsent(ps.getSubject().getId(), ps.getSubject())));
+        teachers.forEach(t -> subjects.putIfAbsent(t.getSubject().getId(), t.getSubject()));
+        return new ArrayList<>(subjects.values());
     }
 
-    private void mutate(
-            GeneticTimetable timetable,
-            List<TimeSlot> timeSlots,
-            List<Teacher> teachers,
-            List<Classroom> classrooms,
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities,
-            Random random) {
-        logger.debug("Mutating timetable");
-        if (!timetable.getSchedules().isEmpty()) {
-            int idx = random.nextInt(timetable.getSchedules().size());
-            Schedule toMutate = timetable.getSchedules().get(idx);
-            Schedule newSchedule = createRandomSchedule(
-                    toMutate.getClassEntity(),
-                    toMutate.getSubject(),
-                    timeSlots,
-                    teachers,
-                    classrooms,
-                    teacherAvailabilities,
-                    random,
-                    timetable);
-            if (newSchedule != null) {
-                timetable.getSchedules().set(idx, newSchedule);
-                logger.debug("Mutated schedule at index {}", idx);
-            }
+    private void logEligibilityGaps(ProblemSnapshot snapshot) {
+        EligibilityIndex eligibility = snapshot.eligibility();
+        for (int[] gap : eligibility.requirementsWithoutTeachers(snapshot)) {
+            logger.warn("No eligible teachers for subject {} in program {}",
+                    snapshot.subjectId(gap[1]), snapshot.programId(gap[0]));
+        }
+        for (int subject : eligibility.subjectsWithoutRooms(snapshot)) {
+            logger.warn("No classrooms matching room type for subject {}", snapshot.subjectId(subject));
         }
     }
 
-    private GeneticTimetable repairTimetable(
+    // Entities are only materialized for the winning individual
+    private List<Schedule> toSchedules(
             GeneticTimetable timetable,
+            ProblemSnapshot snapshot,
             List<Class> classes,
-            List<TimeSlot> timeSlots,
+            List<Subject> subjects,
             List<Teacher> teachers,
             List<Classroom> classrooms,
-            Map<Long, List<TeacherAvailability>> teacherAvailabilities) {
-        logger.debug("Repairing timetable");
-        GeneticTimetable repaired = new GeneticTimetable();
-        Map<Long, Set<Long>> teacherSlots = new HashMap<>();
-        Map<Long, Set<Long>> classroomSlots = new HashMap<>();
-        Map<Long, Set<Long>> classSlots = new HashMap<>();
-
-        for (Schedule s : timetable.getSchedules()) {
-            Long timeSlotId = s.getTimeSlot().getId();
-            teacherSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            classroomSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            classSlots.computeIfAbsent(timeSlotId, k -> new HashSet<>());
-            if (teacherSlots.get(timeSlotId).add(s.getTeacher().getId()) &&
-                    classroomSlots.get(timeSlotId).add(s.getClassroom().getId()) &&
-                    classSlots.get(timeSlotId).add(s.getClassEntity().getId()) &&
-                    s.getClassroom().getType().equalsIgnoreCase(s.getSubject().getRoomType()) &&
-                    isTeacherAvailable(s.getTeacher(), teacherAvailabilities.getOrDefault(s.getTeacher().getId(), Collections.emptyList()), timetable)) {
-                repaired.getSchedules().add(new Schedule(null, s.getClassEntity(), s.getSubject(), s.getTeacher(), s.getClassroom(), s.getTimeSlot()));
-            }
+            List<TimeSlot> timeSlots) {
+        List<Schedule> schedules = new ArrayList<>(snapshot.fixedCount() + timetable.assignedCount());
+        for (int f = 0; f < snapshot.fixedCount(); f++) {
+            schedules.add(new Schedule(null, classes.get(snapshot.fixedClass(f)), subjects.get(snapshot.fixedSubject(f)),
+                    teachers.get(snapshot.fixedTeacher(f)), classrooms.get(snapshot.fixedRoom(f)), timeSlots.get(snapshot.fixedSlot(f))));
         }
-
-        Map<Long, Map<Long, Integer>> classSubjectHours = repaired.getSchedules().stream()
-                .collect(Collectors.groupingBy(
-                        s -> s.getClassEntity().getId(),
-                        Collectors.groupingBy(
-                                s -> s.getSubject().getId(),
-                                Collectors.summingInt(s -> 1))));
-        for (Class clazz : classes) {
-            List<ProgramSubject> requirements = programSubjectRepository.findByProgramId(clazz.getProgram().getId());
-            for (ProgramSubject ps : requirements) {
-                int actual = classSubjectHours.getOrDefault(clazz.getId(), Collections.emptyMap())
-                        .getOrDefault(ps.getSubject().getId(), 0);
-                int needed = ps.getHoursPerWeek() - actual;
-                for (int i = 0; i < needed; i++) {
-                    Schedule newSchedule = createRandomSchedule(
-                            clazz, ps.getSubject(), timeSlots, teachers, classrooms, teacherAvailabilities, new Random(), repaired);
-                    if (newSchedule != null) {
-                        repaired.getSchedules().add(newSchedule);
-                        classSubjectHours.computeIfAbsent(clazz.getId(), k -> new HashMap<>())
-                                .merge(ps.getSubject().getId(), 1, Integer::sum);
-                    }
-                }
-            }
+        for (int l = 0; l < timetable.size(); l++) {
+            if (!timetable.isAssigned(l)) continue;
+            schedules.add(new Schedule(null, classes.get(snapshot.lessonClass(l)), subjects.get(snapshot.lessonSubject(l)),
+                    teachers.get(timetable.teacher(l)), classrooms.get(timetable.room(l)), timeSlots.get(timetable.slot(l))));
         }
-
-        logger.debug("Repaired timetable has {} schedules", repaired.getSchedules().size());
-        return repaired;
+        return schedules;
     }
 
-    private Timetable saveTimetable(GeneticTimetable geneticTimetable, Long schoolId) {
-        logger.debug("Saving timetable with {} schedules for schoolId: {}", geneticTimetable.getSchedules().size(), schoolId);
+    private Timetable saveTimetable(List<Schedule> schedules, Long schoolId) {
+        logger.debug("Saving timetable with {} schedules for schoolId: {}", schedules.size(), schoolId);
         try {
             // Verify no existing timetable
             Optional<Timetable> existing = timetableRepository.findBySchoolId(schoolId);
@@ -552,8 +637,8 @@ public class TimetableService {
                     .orElseThrow(() -> new IllegalArgumentException("School not found: " + schoolId)));
             newTimetable.setStatus("Draft");
             newTimetable.setGeneratedAt(LocalDateTime.now());
-            newTimetable.setSchedules(geneticTimetable.getSchedules());
-            geneticTimetable.getSchedules().forEach(s -> s.setTimetable(newTimetable));
+            newTimetable.setSchedules(schedules);
+            schedules.forEach(s -> s.setTimetable(newTimetable));
             Timetable saved = timetableRepository.save(newTimetable);
             logger.info("Successfully saved timetable with ID: {}", saved.getId());
             return saved;
@@ -570,14 +655,13 @@ public class TimetableService {
         dto.setSchoolId(timetable.getSchool().getId());
         dto.setStatus(timetable.getStatus());
         dto.setGeneratedAt(timetable.getGeneratedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        // Resolve each program's specialty once instead of once per comparison
+        List<String> order = Arrays.asList("Technology", "Math", "Letters");
+        Map<Long, Integer> specialtyRank = new HashMap<>();
         dto.setSchedules(timetable.getSchedules().stream()
                 .map(this::mapToScheduleDTO)
-                .sorted((s1, s2) -> {
-                    String spec1 = getSpecialtyName(s1.getClassEntity().getProgramId());
-                    String spec2 = getSpecialtyName(s2.getClassEntity().getProgramId());
-                    List<String> order = Arrays.asList("Technology", "Math", "Letters");
-                    return Integer.compare(order.indexOf(spec1), order.indexOf(spec2));
-                })
+                .sorted(Comparator.comparingInt(s -> specialtyRank.computeIfAbsent(s.getClassEntity().getProgramId(),
+                        programId -> order.indexOf(getSpecialtyName(programId)))))
                 .collect(Collectors.toList()));
         return dto;
     }
@@ -662,19 +746,17 @@ public class TimetableService {
         return timetableRepository;
     }
 
-    private static class GeneticTimetable {
-        private List<Schedule> schedules;
-
-        public GeneticTimetable() {
-            this.schedules = new ArrayList<>();
-        }
-
-        public GeneticTimetable(List<Schedule> schedules) {
-            this.schedules = new ArrayList<>(schedules);
-        }
-
-        public List<Schedule> getSchedules() {
-            return schedules;
-        }
+    // Everything the solver reads, loaded in one read-only transaction
+    private static final class SchoolData {
+        private Long schoolId;
+        private List<Class> classes; // stored classes, only when starting from the stored timetable
+        private List<long[]> storedLessons;
+        private List<Program> programs;
+        private List<TimeSlot> timeSlots;
+        private List<Teacher> teachers;
+        private List<Classroom> classrooms;
+        private Map<Long, List<TeacherAvailability>> teacherAvailabilities;
+        private Map<Long, List<ProgramSubject>> requirements;
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,95 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * Single-trajectory search: one greedy construction (or the reference timetable when re-optimizing)
+ * improved by tabu-guided simulated annealing for the whole budget. Cheaper per move than the GA
+ * and usually the better choice for small schools or short time limits.
+ */
+@Component(AnnealingSolver.NAME)
+public class AnnealingSolver implements TimetableSolver {
+    public static final String NAME = "annealing";
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnealingSolver.class);
+
+    @Value("${timetable.annealing.max.iterations:5000000}")
+    private int maxIterations;
+
+    @Value("${timetable.annealing.tabu.tenure:20}")
+    private int tabuTenure;
+
+    @Value("${timetable.annealing.temperature:200}")
+    private double temperature;
+
+    @Override
+    public SolverResult solve(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress) {
+        long start = System.currentTimeMillis();
+        long deadline = budget.deadlineFrom(start);
+        SplittableRandom random = budget.newRandom();
+        progress.setPhase(SolverProgress.Phase.INITIALIZING);
+        Workspace workspace = new Workspace(snapshot);
+        GeneticTimetable initial = new GeneticTimetable(snapshot);
+        SolverProgress.StepTimer constructionStep = progress.startStep(SolverProgress.Step.CONSTRUCTION);
+        if (snapshot.hasReference()) {
+            startFromReference(snapshot, initial, workspace, random);
+        } else {
+            workspace.constructor().construct(initial, random);
+        }
+        constructionStep.done();
+        GeneticTimetable repaired = workspace.repair(initial, random, progress);
+        progress.recordGeneration(0, repaired.fitness(), repaired.fitness(), repaired.hardViolations());
+        if (repaired.score().isFeasible() || progress.isCancelled()) {
+            SolverProgress.StopReason reason = progress.isCancelled()
+                    ? SolverProgress.StopReason.CANCELLED : SolverProgress.StopReason.OPTIMAL;
+            return new SolverResult(NAME, repaired, reason, 0, System.currentTimeMillis() - start);
+        }
+
+        progress.setPhase(SolverProgress.Phase.OPTIMIZING);
+        GeneticTimetable candidate = new GeneticTimetable(snapshot);
+        candidate.copyFrom(repaired);
+        LocalSearch search = new LocalSearch(snapshot, tabuTenure, temperature);
+        SolverProgress.StepTimer searchStep = progress.startStep(SolverProgress.Step.LOCAL_SEARCH);
+        search.polish(candidate, random, maxIterations, deadline, progress);
+        searchStep.done();
+        // Annealing may accept an overloaded teacher for a better raw score, which repair then undoes
+        GeneticTimetable polished = workspace.repair(candidate, random, progress);
+        GeneticTimetable best = polished.score().compareTo(repaired.score()) > 0 ? polished : repaired;
+        progress.recordGeneration(search.iterations(), best.fitness(), best.fitness(), best.hardViolations());
+
+        SolverProgress.StopReason reason;
+        if (progress.isCancelled()) {
+            reason = SolverProgress.StopReason.CANCELLED;
+        } else if (best.score().isFeasible()) {
+            reason = SolverProgress.StopReason.OPTIMAL;
+        } else if (search.iterations() >= maxIterations) {
+            reason = SolverProgress.StopReason.MAX_GENERATIONS;
+        } else {
+            reason = SolverProgress.StopReason.TIMEOUT;
+        }
+        logger.info("Annealing: score {} after construction, {} after {} moves ({})",
+                repaired.score(), best.score(), search.iterations(), reason);
+        return new SolverResult(NAME, best, reason, search.iterations(), System.currentTimeMillis() - start);
+    }
+
+    // Lessons the reference does not cover are placed randomly
+    private void startFromReference(ProblemSnapshot snapshot, GeneticTimetable timetable, Workspace workspace,
+                                    SplittableRandom random) {
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            int slot = snapshot.referenceSlot(lesson);
+            if (slot != GeneticTimetable.UNASSIGNED) {
+                timetable.assign(lesson, slot, snapshot.referenceTeacher(lesson), snapshot.referenceRoom(lesson));
+            }
+        }
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            if (!timetable.isAssigned(lesson)) {
+                workspace.placeRandomly(timetable, lesson, random);
+            }
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Greedy graph-colouring construction in the spirit of DSatur. Lessons of the same class and
+ * subject form a group; at every step the group with the fewest feasible slots left (the most
+ * saturated) is placed next, ties going to the group with the fewest eligible resources and
+ * then to a random pick. The lesson goes to the feasible slot that keeps the most teacher and
+ * room options open, preferring days where the class does not have the subject yet.
+ * Lessons with no feasible slot are left unassigned. One instance per worker thread.
+ */
+public final class DSaturConstructor {
+    private final ProblemSnapshot snapshot;
+    private final int slots;
+    private final int subjects;
+
+    // Lesson groups: consecutive lessons of one class and subject
+    private final int[] groupStart;
+    private final int[] groupEnd;
+    private final int[] groupClass;
+    private final int[] groupSubject;
+    private final int[] groupResources;
+    private final int[] classGroupStart; // classCount + 1 offsets into the group arrays
+    private final int[][] pairGroups;    // program * subjects + subject -> groups
+    private final int[][] subjectGroups; // subject -> groups
+
+    // Scratch state, reset on every run
+    private final int[] groupNext;
+    private final int[] groupFeasible; // slots where class, a teacher and a room are all still free
+    private final int[] teacherHours;
+    private final int[] freeTeachers; // (program * subjects + subject) * slots + slot
+    private final int[] freeRooms;    // subject * slots + slot
+    private final boolean[] teacherBusy; // teacher * slots + slot
+    private final boolean[] roomBusy;    // room * slots + slot
+
+    public DSaturConstructor(ProblemSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.slots = snapshot.slotCount();
+        this.subjects = snapshot.subjectCount();
+
+        int groups = 0;
+        for (int l = 0; l < snapshot.lessonCount(); l++) {
+            if (l == 0 || snapshot.lessonClass(l) != snapshot.lessonClass(l - 1)
+                    || snapshot.lessonSubject(l) != snapshot.lessonSubject(l - 1)) {
+                groups++;
+            }
+        }
+        this.groupStart = new int[groups];
+        this.groupEnd = new int[groups];
+        this.groupClass = new int[groups];
+        this.groupSubject = new int[groups];
+        this.groupResources = new int[groups];
+        int g = -1;
+        for (int l = 0; l < snapshot.lessonCount(); l++) {
+            if (g < 0 || snapshot.lessonClass(l) != groupClass[g] || snapshot.lessonSubject(l) != groupSubject[g]) {
+                g++;
+                groupStart[g] = l;
+                groupClass[g] = snapshot.lessonClass(l);
+                groupSubject[g] = snapshot.lessonSubject(l);
+                groupResources[g] = availableTeachers(snapshot.classProgram(groupClass[g]), groupSubject[g])
+                        * snapshot.eligibility().rooms(groupSubject[g]).length;
+            }
+            groupEnd[g] = l + 1;
+        }
+
+        this.classGroupStart = new int[snapshot.classCount() + 1];
+        int[] pairCounts = new int[snapshot.programCount() * subjects];
+        int[] subjectCounts = new int[subjects];
+        for (int i = groups - 1; i >= 0; i--) {
+            classGroupStart[groupClass[i]] = i;
+            pairCounts[snapshot.classProgram(groupClass[i]) * subjects + groupSubject[i]]++;
+            subjectCounts[groupSubject[i]]++;
+        }
+        classGroupStart[snapshot.classCount()] = groups;
+        for (int c = snapshot.classCount() - 1; c >= 0; c--) {
+            if (snapshot.classLessonStart(c) == snapshot.classLessonEnd(c)) {
+                classGroupStart[c] = classGroupStart[c + 1];
+            }
+        }
+        this.pairGroups = new int[pairCounts.length][];
+        for (int key = 0; key < pairCounts.length; key++) {
+            pairGroups[key] = new int[pairCounts[key]];
+            pairCounts[key] = 0;
+        }
+        this.subjectGroups = new int[subjects][];
+        for (int s = 0; s < subjects; s++) {
+            subjectGroups[s] = new int[subjectCounts[s]];
+            subjectCounts[s] = 0;
+        }
+        for (int i = 0; i < groups; i++) {
+            int key = snapshot.classProgram(groupClass[i]) * subjects + groupSubject[i];
+            pairGroups[key][pairCounts[key]++] = i;
+            subjectGroups[groupSubject[i]][subjectCounts[groupSubject[i]]++] = i;
+        }
+
+        this.groupNext = new int[groups];
+        this.groupFeasible = new int[groups];
+        this.teacherHours = new int[snapshot.teacherCount()];
+        this.freeTeachers = new int[snapshot.programCount() * subjects * slots];
+        this.freeRooms = new int[subjects * slots];
+        this.teacherBusy = new boolean[snapshot.teacherCount() * slots];
+        this.roomBusy = new boolean[snapshot.roomCount() * slots];
+    }
+
+    /** Clears the timetable and fills it greedily; randomness only breaks ties. */
+    public void construct(GeneticTimetable timetable, SplittableRandom random) {
+        timetable.clear();
+        reset();
+        if (snapshot.fixedCount() > 0) {
+            occupyFixed(timetable);
+            recountFeasible(timetable);
+        }
+        fill(timetable, random);
+    }
+
+    /**
+     * Keeps the lessons the timetable already places, such as those taken from a reference timetable,
+     * and fills the rest greedily around them.
+     */
+    public void complete(GeneticTimetable timetable, SplittableRandom random) {
+        reset();
+        occupyFixed(timetable);
+        for (int l = 0; l < snapshot.lessonCount(); l++) {
+            if (timetable.isAssigned(l)) {
+                occupy(timetable, timetable.slot(l), timetable.teacher(l), timetable.room(l));
+            }
+        }
+        recountFeasible(timetable);
+        fill(timetable, random);
+    }
+
+    private void fill(GeneticTimetable timetable, SplittableRandom random) {
+        int remaining = groupStart.length;
+        while (remaining > 0) {
+            int group = selectGroup(random);
+            if (group < 0) break;
+            int lesson = groupNext[group]++;
+            if (groupNext[group] == groupEnd[group]) remaining--;
+            if (!timetable.isAssigned(lesson)) {
+                place(timetable, lesson, random);
+            }
+        }
+    }
+
+    private void reset() {
+        System.arraycopy(groupStart, 0, groupNext, 0, groupStart.length);
+        Arrays.fill(teacherHours, 0);
+        Arrays.fill(teacherBusy, false);
+        Arrays.fill(roomBusy, false);
+        for (int p = 0; p < snapshot.programCount(); p++) {
+            for (int s = 0; s < subjects; s++) {
+                Arrays.fill(freeTeachers, (p * subjects + s) * slots, (p * subjects + s + 1) * slots, availableTeachers(p, s));
+            }
+        }
+        for (int s = 0; s < subjects; s++) {
+            Arrays.fill(freeRooms, s * slots, (s + 1) * slots, snapshot.eligibility().rooms(s).length);
+        }
+        for (int g = 0; g < groupStart.length; g++) {
+            int teacherBase = (snapshot.classProgram(groupClass[g]) * subjects + groupSubject[g]) * slots;
+            groupFeasible[g] = slots > 0 && freeTeachers[teacherBase] > 0 && freeRooms[groupSubject[g] * slots] > 0 ? slots : 0;
+        }
+    }
+
+    // Fixed lessons take their teacher and room before anything is placed
+    private void occupyFixed(GeneticTimetable timetable) {
+        for (int f = 0; f < snapshot.fixedCount(); f++) {
+            occupy(timetable, snapshot.fixedSlot(f), snapshot.fixedTeacher(f), snapshot.fixedRoom(f));
+        }
+    }
+
+    // A clash or an overloaded teacher among lessons placed up front frees nothing twice
+    private void occupy(GeneticTimetable timetable, int slot, int teacher, int room) {
+        if (teacher != GeneticTimetable.UNASSIGNED) {
+            if (usable(teacher) && !teacherBusy[teacher * slots + slot] && teacherHours[teacher] < snapshot.teacherMaxHours(teacher)) {
+                occupyTeacher(timetable, teacher, slot);
+            } else {
+                teacherBusy[teacher * slots + slot] = true;
+                teacherHours[teacher]++;
+            }
+        }
+        if (room != GeneticTimetable.UNASSIGNED && !roomBusy[room * slots + slot]) {
+            occupyRoom(timetable, room, slot);
+        }
+    }
+
+    // Feasible counts are taken from scratch once lessons are placed up front, since the class slots they
+    // occupy were never counted out
+    private void recountFeasible(GeneticTimetable timetable) {
+        for (int g = 0; g < groupStart.length; g++) {
+            int teacherBase = (snapshot.classProgram(groupClass[g]) * subjects + groupSubject[g]) * slots;
+            int feasible = 0;
+            for (int s = 0; s < slots; s++) {
+                if (freeTeachers[teacherBase + s] > 0 && freeRooms[groupSubject[g] * slots + s] > 0
+                        && !timetable.isClassBusy(groupClass[g], s)) {
+                    feasible++;
+                }
+            }
+            groupFeasible[g] = feasible;
+        }
+    }
+
+    private int availableTeachers(int program, int subject) {
+        int count = 0;
+        for (int t : snapshot.eligibility().teachers(program, subject)) {
+            if (usable(t)) count++;
+        }
+        return count;
+    }
+
+    private boolean usable(int teacher) {
+        return snapshot.isTeacherAvailable(teacher) && snapshot.teacherMaxHours(teacher) > 0;
+    }
+
+    private int selectGroup(SplittableRandom random) {
+        int best = -1;
+        int bestFeasible = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int g = 0; g < groupStart.length; g++) {
+            if (groupNext[g] == groupEnd[g]) continue;
+            int feasible = groupFeasible[g];
+            int cmp = best < 0 ? -1 : feasible != bestFeasible
+                    ? Integer.compare(feasible, bestFeasible)
+                    : Integer.compare(groupResources[g], groupResources[best]);
+            if (cmp < 0) {
+                best = g;
+                bestFeasible = feasible;
+                ties = 1;
+            } else if (cmp == 0 && random.nextInt(++ties) == 0) {
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    private void place(GeneticTimetable timetable, int lesson, SplittableRandom random) {
+        int clazz = snapshot.lessonClass(lesson);
+        int subject = snapshot.lessonSubject(lesson);
+        int program = snapshot.classProgram(clazz);
+        int teacherBase = (program * subjects + subject) * slots;
+        int roomBase = subject * slots;
+
+        // Least constrained slot: most free teacher x room combinations, new days first
+        int slot = -1;
+        long bestOptions = -1;
+        int ties = 0;
+        for (int s = 0; s < slots; s++) {
+            if (freeTeachers[teacherBase + s] == 0 || freeRooms[roomBase + s] == 0 || timetable.isClassBusy(clazz, s)) continue;
+            long options = (long) freeTeachers[teacherBase + s] * freeRooms[roomBase + s];
+            if (!hasSubjectOnDay(timetable, clazz, subject, snapshot.slotDay(s))) {
+                options += Integer.MAX_VALUE;
+            }
+            if (options > bestOptions) {
+                slot = s;
+                bestOptions = options;
+                ties = 1;
+            } else if (options == bestOptions && random.nextInt(++ties) == 0) {
+                slot = s;
+            }
+        }
+        if (slot < 0) return;
+
+        // Least loaded free teacher keeps hours balanced
+        int teacher = -1;
+        ties = 0;
+        for (int t : snapshot.eligibility().teachers(program, subject)) {
+            if (!usable(t) || teacherBusy[t * slots + slot] || teacherHours[t] >= snapshot.teacherMaxHours(t)) continue;
+            if (teacher < 0 || teacherHours[t] < teacherHours[teacher]) {
+                teacher = t;
+                ties = 1;
+            } else if (teacherHours[t] == teacherHours[teacher] && random.nextInt(++ties) == 0) {
+                teacher = t;
+            }
+        }
+        int room = -1;
+        ties = 0;
+        for (int r : snapshot.eligibility().rooms(subject)) {
+            if (!roomBusy[r * slots + slot] && random.nextInt(++ties) == 0) {
+                room = r;
+            }
+        }
+
+        // Feasible counts drop once per slot, when the first of class, teacher or room runs out there
+        for (int g = classGroupStart[clazz]; g < classGroupStart[clazz + 1]; g++) {
+            if (freeTeachers[(program * subjects + groupSubject[g]) * slots + slot] > 0
+                    && freeRooms[groupSubject[g] * slots + slot] > 0) {
+                groupFeasible[g]--;
+            }
+        }
+        timetable.assign(lesson, slot, teacher, room);
+        occupyTeacher(timetable, teacher, slot);
+        occupyRoom(timetable, room, slot);
+    }
+
+    private boolean hasSubjectOnDay(GeneticTimetable timetable, int clazz, int subject, int day) {
+        for (int l = snapshot.classLessonStart(clazz); l < snapshot.classLessonEnd(clazz); l++) {
+            if (snapshot.lessonSubject(l) == subject && timetable.isAssigned(l) && snapshot.slotDay(timetable.slot(l)) == day) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A teacher counts as free for every program it teaches; reaching max hours frees no slot again
+    private void occupyTeacher(GeneticTimetable timetable, int teacher, int slot) {
+        int subject = snapshot.teacherSubject(teacher);
+        teacherBusy[teacher * slots + slot] = true;
+        boolean exhausted = ++teacherHours[teacher] >= snapshot.teacherMaxHours(teacher);
+        for (int p = 0; p < snapshot.programCount(); p++) {
+            if (!snapshot.teachesProgram(teacher, p)) continue;
+            int base = (p * subjects + subject) * slots;
+            if (exhausted) {
+                for (int s = 0; s < slots; s++) {
+                    if (s == slot || !teacherBusy[teacher * slots + s]) releaseTeacher(timetable, p, subject, s);
+                }
+            } else {
+                releaseTeacher(timetable, p, subject, slot);
+            }
+        }
+    }
+
+    private void releaseTeacher(GeneticTimetable timetable, int program, int subject, int slot) {
+        int key = program * subjects + subject;
+        if (--freeTeachers[key * slots + slot] > 0 || freeRooms[subject * slots + slot] == 0) return;
+        for (int g : pairGroups[key]) {
+            if (!timetable.isClassBusy(groupClass[g], slot)) groupFeasible[g]--;
+        }
+    }
+
+    private void occupyRoom(GeneticTimetable timetable, int room, int slot) {
+        roomBusy[room * slots + slot] = true;
+        for (int s = 0; s < subjects; s++) {
+            if (!snapshot.roomMatches(room, s)) continue;
+            if (--freeRooms[s * slots + slot] > 0) continue;
+            for (int g : subjectGroups[s]) {
+                int teacherKey = snapshot.classProgram(groupClass[g]) * subjects + s;
+                if (freeTeachers[teacherKey * slots + slot] > 0 && !timetable.isClassBusy(groupClass[g], slot)) {
+                    groupFeasible[g]--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Eligible teachers per (program, subject) and eligible classrooms per subject, built once per
+ * snapshot. Eligibility only depends on those keys, so every lookup during construction,
+ * mutation and repair is a shared array instead of a scan over all teachers or classrooms.
+ * Returned arrays must not be modified.
+ */
+public final class EligibilityIndex {
+    private static final int[] NONE = new int[0];
+
+    private final int subjectCount;
+    private final int[][] teachers; // program * subjectCount + subject
+    private final int[][] rooms;    // subject
+
+    EligibilityIndex(ProblemSnapshot snapshot) {
+        this.subjectCount = snapshot.subjectCount();
+        int programCount = snapshot.programCount();
+        int[] counts = new int[programCount * subjectCount];
+        for (int t = 0; t < snapshot.teacherCount(); t++) {
+            int subject = snapshot.teacherSubject(t);
+            if (subject < 0) continue;
+            for (int p = 0; p < programCount; p++) {
+                if (snapshot.teachesProgram(t, p)) counts[p * subjectCount + subject]++;
+            }
+        }
+        this.teachers = new int[programCount * subjectCount][];
+        for (int key = 0; key < teachers.length; key++) {
+            teachers[key] = counts[key] == 0 ? NONE : new int[counts[key]];
+            counts[key] = 0;
+        }
+        // Teachers are added in index order, so the arrays are sorted
+        for (int t = 0; t < snapshot.teacherCount(); t++) {
+            int subject = snapshot.teacherSubject(t);
+            if (subject < 0) continue;
+            for (int p = 0; p < programCount; p++) {
+                if (snapshot.teachesProgram(t, p)) {
+                    int key = p * subjectCount + subject;
+                    teachers[key][counts[key]++] = t;
+                }
+            }
+        }
+        this.rooms = new int[subjectCount][];
+        for (int s = 0; s < subjectCount; s++) {
+            int count = 0;
+            int[] eligible = new int[snapshot.roomCount()];
+            for (int r = 0; r < snapshot.roomCount(); r++) {
+                if (snapshot.roomMatches(r, s)) {
+                    eligible[count++] = r;
+                }
+            }
+            rooms[s] = count == 0 ? NONE : Arrays.copyOf(eligible, count);
+        }
+    }
+
+    public int[] teachers(int program, int subject) {
+        return teachers[program * subjectCount + subject];
+    }
+
+    public int[] rooms(int subject) {
+        return rooms[subject];
+    }
+
+    // Required (program, subject) pairs, as {program, subject} index pairs, that no teacher can take
+    public List<int[]> requirementsWithoutTeachers(ProblemSnapshot snapshot) {
+        List<int[]> missing = new ArrayList<>();
+        for (int p = 0; p < snapshot.programCount(); p++) {
+            for (int k = 0; k < snapshot.requirementCount(p); k++) {
+                int subject = snapshot.requirementSubject(p, k);
+                if (teachers(p, subject).length == 0) {
+                    missing.add(new int[]{p, subject});
+                }
+            }
+        }
+        return missing;
+    }
+
+    // Required subjects that no classroom type matches
+    public List<Integer> subjectsWithoutRooms(ProblemSnapshot snapshot) {
+        boolean[] required = new boolean[subjectCount];
+        for (int p = 0; p < snapshot.programCount(); p++) {
+            for (int k = 0; k < snapshot.requirementCount(p); k++) {
+                required[snapshot.requirementSubject(p, k)] = true;
+            }
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int s = 0; s < subjectCount; s++) {
+            if (required[s] && rooms[s].length == 0) {
+                missing.add(s);
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,135 @@
+package tn.esprit.new_timetableservice.solver;
+
+/**
+ * Score and feasibility computed from scratch over fixed lessons and assigned genes, with the
+ * same terms as {@link FitnessState}. Solvers read the incremental score; this is the reference
+ * it is verified against.
+ */
+public final class FitnessCheck {
+    private FitnessCheck() {
+    }
+
+    public static HardSoftScore calculateScore(GeneticTimetable timetable, ProblemSnapshot snapshot) {
+        int hard = 0;
+        int soft = 0;
+        int subjects = snapshot.subjectCount();
+        int slots = snapshot.slotCount();
+
+        int[][] placed = placements(timetable, snapshot);
+        int[] classSubjectHours = new int[snapshot.classCount() * subjects];
+        for (int p = 0; p < placed[0].length; p++) {
+            classSubjectHours[placed[0][p] * subjects + placed[1][p]]++;
+        }
+        for (int c = 0; c < snapshot.classCount(); c++) {
+            int program = snapshot.classProgram(c);
+            for (int k = 0; k < snapshot.requirementCount(program); k++) {
+                int actual = classSubjectHours[c * subjects + snapshot.requirementSubject(program, k)];
+                int required = snapshot.requirementHours(program, k);
+                if (actual == required) {
+                    soft += 100;
+                } else {
+                    hard -= Math.abs(actual - required);
+                }
+            }
+        }
+
+        boolean[] teacherSlots = new boolean[snapshot.teacherCount() * slots];
+        boolean[] classroomSlots = new boolean[snapshot.roomCount() * slots];
+        boolean[] classSlots = new boolean[snapshot.classCount() * slots];
+        boolean[] subjectDays = new boolean[snapshot.classCount() * subjects * snapshot.dayCount()];
+        for (int p = 0; p < placed[0].length; p++) {
+            int clazz = placed[0][p];
+            int subject = placed[1][p];
+            int slot = placed[2][p];
+            int teacher = placed[3][p];
+            int room = placed[4][p];
+            if (teacherSlots[teacher * slots + slot]) hard--;
+            if (classroomSlots[room * slots + slot]) hard--;
+            if (classSlots[clazz * slots + slot]) hard--;
+            teacherSlots[teacher * slots + slot] = true;
+            classroomSlots[room * slots + slot] = true;
+            classSlots[clazz * slots + slot] = true;
+
+            if (snapshot.roomMatches(room, subject)) soft += 10; else hard--;
+            if (snapshot.isEligible(teacher, clazz, subject)) soft += 10; else hard--;
+
+            int day = (clazz * subjects + subject) * snapshot.dayCount() + snapshot.slotDay(slot);
+            if (!subjectDays[day]) {
+                subjectDays[day] = true;
+                soft += 5;
+            }
+        }
+
+        int[] teacherHours = teacherHours(placed, snapshot);
+        for (int t = 0; t < teacherHours.length; t++) {
+            int hours = teacherHours[t];
+            if (hours == 0) continue;
+            int max = snapshot.teacherMaxHours(t);
+            if (hours <= max) {
+                soft += 10;
+            } else {
+                hard -= hours - max;
+            }
+        }
+        double variance = variance(teacherHours);
+
+        for (int l = 0; l < timetable.size(); l++) {
+            if (snapshot.referenceSlot(l) != GeneticTimetable.UNASSIGNED
+                    && !snapshot.matchesReference(l, timetable.slot(l), timetable.teacher(l), timetable.room(l))) {
+                soft -= snapshot.changePenalty();
+            }
+        }
+
+        return new HardSoftScore(hard, soft - variance * 10);
+    }
+
+    // Population variance of the hours of teachers with at least one lesson
+    public static double teacherLoadVariance(GeneticTimetable timetable, ProblemSnapshot snapshot) {
+        return variance(teacherHours(placements(timetable, snapshot), snapshot));
+    }
+
+    private static int[] teacherHours(int[][] placed, ProblemSnapshot snapshot) {
+        int[] teacherHours = new int[snapshot.teacherCount()];
+        for (int p = 0; p < placed[0].length; p++) {
+            teacherHours[placed[3][p]]++;
+        }
+        return teacherHours;
+    }
+
+    private static double variance(int[] teacherHours) {
+        int teachersUsed = 0;
+        long totalHours = 0;
+        long squareHours = 0;
+        for (int hours : teacherHours) {
+            if (hours == 0) continue;
+            teachersUsed++;
+            totalHours += hours;
+            squareHours += (long) hours * hours;
+        }
+        return FitnessState.variance(teachersUsed, totalHours, squareHours);
+    }
+
+    // Class, subject, slot, teacher and room of every placed lesson: fixed lessons first, then assigned genes
+    private static int[][] placements(GeneticTimetable timetable, ProblemSnapshot snapshot) {
+        int fixed = snapshot.fixedCount();
+        int[][] placed = new int[5][fixed + timetable.assignedCount()];
+        for (int f = 0; f < fixed; f++) {
+            placed[0][f] = snapshot.fixedClass(f);
+            placed[1][f] = snapshot.fixedSubject(f);
+            placed[2][f] = snapshot.fixedSlot(f);
+            placed[3][f] = snapshot.fixedTeacher(f);
+            placed[4][f] = snapshot.fixedRoom(f);
+        }
+        int p = fixed;
+        for (int l = 0; l < timetable.size(); l++) {
+            if (!timetable.isAssigned(l)) continue;
+            placed[0][p] = snapshot.lessonClass(l);
+            placed[1][p] = snapshot.lessonSubject(l);
+            placed[2][p] = timetable.slot(l);
+            placed[3][p] = timetable.teacher(l);
+            placed[4][p] = timetable.room(l);
+            p++;
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,215 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.Arrays;
+
+/**
+ * Incremental score of one chromosome. Keeps the occupancy, hour and subject-day counters
+ * behind every score term so that placing or removing a single lesson updates both levels in O(1).
+ * Uses the same terms as the full recompute in {@link FitnessCheck#calculateScore}.
+ */
+public final class FitnessState {
+    private final ProblemSnapshot snapshot;
+    private final int slots;
+    private final int subjects;
+    private final int days;
+
+    private final int[] teacherSlots;      // teacher * slots + slot
+    private final int[] roomSlots;         // room * slots + slot
+    private final int[] classSlots;        // class * slots + slot
+    private final int[] teacherHours;
+    private final int[] classSubjectHours; // class * subjects + subject
+    private final int[] subjectDays;       // (class * subjects + subject) * days + day
+
+    // Every soft term except the teacher load variance, which is derived from the aggregates below
+    private int soft;
+    // Units of hard-constraint violation: missing or extra hours, extra occupants, mismatched rooms
+    // or teachers and hours over a teacher's maximum
+    private int hardViolations;
+    // Referenced lessons still placed exactly as in the snapshot's reference
+    private int unchanged;
+    private int teachersUsed;
+    private long hourSum;
+    private long hourSquareSum;
+
+    FitnessState(ProblemSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.slots = snapshot.slotCount();
+        this.subjects = snapshot.subjectCount();
+        this.days = snapshot.dayCount();
+        this.teacherSlots = new int[snapshot.teacherCount() * slots];
+        this.roomSlots = new int[snapshot.roomCount() * slots];
+        this.classSlots = new int[snapshot.classCount() * slots];
+        this.teacherHours = new int[snapshot.teacherCount()];
+        this.classSubjectHours = new int[snapshot.classCount() * subjects];
+        this.subjectDays = new int[snapshot.classCount() * subjects * days];
+        reset();
+    }
+
+    public HardSoftScore score() {
+        return new HardSoftScore(hardScore(), softScore());
+    }
+
+    public int hardScore() {
+        return -hardViolations;
+    }
+
+    public double softScore() {
+        return soft - variance() * 10;
+    }
+
+    public int hardViolations() {
+        return hardViolations;
+    }
+
+    // Referenced lessons that moved, changed teacher or room, or were dropped
+    public int changedLessons() {
+        return snapshot.referenceCount() - unchanged;
+    }
+
+    // Population variance of the hours of teachers with at least one lesson; the full recompute uses it too,
+    // so both get bit-identical results
+    public static double variance(int teachersUsed, long hourSum, long hourSquareSum) {
+        if (teachersUsed == 0) return 0;
+        return (double) (teachersUsed * hourSquareSum - hourSum * hourSum) / ((double) teachersUsed * teachersUsed);
+    }
+
+    double variance() {
+        return variance(teachersUsed, hourSum, hourSquareSum);
+    }
+
+    int teacherOccupancy(int teacher, int slot) {
+        return teacherSlots[teacher * slots + slot];
+    }
+
+    int roomOccupancy(int room, int slot) {
+        return roomSlots[room * slots + slot];
+    }
+
+    int classOccupancy(int clazz, int slot) {
+        return classSlots[clazz * slots + slot];
+    }
+
+    int teacherHours(int teacher) {
+        return teacherHours[teacher];
+    }
+
+    void reset() {
+        Arrays.fill(teacherSlots, 0);
+        Arrays.fill(roomSlots, 0);
+        Arrays.fill(classSlots, 0);
+        Arrays.fill(teacherHours, 0);
+        Arrays.fill(classSubjectHours, 0);
+        Arrays.fill(subjectDays, 0);
+        teachersUsed = 0;
+        hourSum = 0;
+        hourSquareSum = 0;
+        soft = -snapshot.referenceCount() * snapshot.changePenalty();
+        hardViolations = 0;
+        unchanged = 0;
+        for (int c = 0; c < snapshot.classCount(); c++) {
+            int program = snapshot.classProgram(c);
+            for (int k = 0; k < snapshot.requirementCount(program); k++) {
+                soft += requirementReward(0, snapshot.requirementHours(program, k));
+                hardViolations += snapshot.requirementHours(program, k);
+            }
+        }
+        for (int f = 0; f < snapshot.fixedCount(); f++) {
+            apply(snapshot.fixedClass(f), snapshot.fixedSubject(f), snapshot.fixedSlot(f),
+                    snapshot.fixedTeacher(f), snapshot.fixedRoom(f), 1);
+        }
+    }
+
+    void copyFrom(FitnessState other) {
+        System.arraycopy(other.teacherSlots, 0, teacherSlots, 0, teacherSlots.length);
+        System.arraycopy(other.roomSlots, 0, roomSlots, 0, roomSlots.length);
+        System.arraycopy(other.classSlots, 0, classSlots, 0, classSlots.length);
+        System.arraycopy(other.teacherHours, 0, teacherHours, 0, teacherHours.length);
+        System.arraycopy(other.classSubjectHours, 0, classSubjectHours, 0, classSubjectHours.length);
+        System.arraycopy(other.subjectDays, 0, subjectDays, 0, subjectDays.length);
+        soft = other.soft;
+        hardViolations = other.hardViolations;
+        unchanged = other.unchanged;
+        teachersUsed = other.teachersUsed;
+        hourSum = other.hourSum;
+        hourSquareSum = other.hourSquareSum;
+    }
+
+    void add(int lesson, int slot, int teacher, int room) {
+        apply(lesson, slot, teacher, room, 1);
+    }
+
+    void remove(int lesson, int slot, int teacher, int room) {
+        apply(lesson, slot, teacher, room, -1);
+    }
+
+    private void apply(int lesson, int slot, int teacher, int room, int delta) {
+        apply(snapshot.lessonClass(lesson), snapshot.lessonSubject(lesson), slot, teacher, room, delta);
+        if (snapshot.matchesReference(lesson, slot, teacher, room)) {
+            unchanged += delta;
+            soft += delta * snapshot.changePenalty();
+        }
+    }
+
+    private void apply(int clazz, int subject, int slot, int teacher, int room, int delta) {
+        int classSubject = clazz * subjects + subject;
+        int required = snapshot.requiredHours(snapshot.classProgram(clazz), subject);
+
+        soft -= requirementReward(classSubjectHours[classSubject], required);
+        hardViolations -= Math.abs(classSubjectHours[classSubject] - required);
+        classSubjectHours[classSubject] += delta;
+        soft += requirementReward(classSubjectHours[classSubject], required);
+        hardViolations += Math.abs(classSubjectHours[classSubject] - required);
+
+        int clashes = occupy(teacherSlots, teacher * slots + slot, delta)
+                + occupy(roomSlots, room * slots + slot, delta)
+                + occupy(classSlots, clazz * slots + slot, delta);
+        hardViolations += clashes;
+
+        boolean roomMatches = snapshot.roomMatches(room, subject);
+        boolean eligible = snapshot.isEligible(teacher, clazz, subject);
+        soft += delta * ((roomMatches ? 10 : 0) + (eligible ? 10 : 0));
+        hardViolations += delta * ((roomMatches ? 0 : 1) + (eligible ? 0 : 1));
+
+        int hours = teacherHours[teacher];
+        int max = snapshot.teacherMaxHours(teacher);
+        soft -= loadReward(max, hours);
+        hardViolations -= Math.max(0, hours - max);
+        if (hours > 0) {
+            teachersUsed--;
+            hourSum -= hours;
+            hourSquareSum -= (long) hours * hours;
+        }
+        hours += delta;
+        teacherHours[teacher] = hours;
+        if (hours > 0) {
+            teachersUsed++;
+            hourSum += hours;
+            hourSquareSum += (long) hours * hours;
+        }
+        soft += loadReward(max, hours);
+        hardViolations += Math.max(0, hours - max);
+
+        int dayCell = classSubject * days + snapshot.slotDay(slot);
+        if (delta > 0) {
+            if (subjectDays[dayCell]++ == 0) soft += 5;
+        } else if (--subjectDays[dayCell] == 0) {
+            soft -= 5;
+        }
+    }
+
+    // Change in extra occupants of a (resource, slot) cell; each one is a hard violation
+    private static int occupy(int[] counts, int cell, int delta) {
+        if (delta > 0) {
+            return counts[cell]++ > 0 ? 1 : 0;
+        }
+        return --counts[cell] > 0 ? -1 : 0;
+    }
+
+    private static int requirementReward(int actual, int required) {
+        return actual == required ? 100 : 0;
+    }
+
+    private static int loadReward(int max, int hours) {
+        return hours > 0 && hours <= max ? 10 : 0;
+    }
+}
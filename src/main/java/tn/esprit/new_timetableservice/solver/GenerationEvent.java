@@ -0,0 +1,46 @@
+package tn.esprit.new_timetableservice.solver;
+
+import jdk.jfr.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Flight Recorder event for one GA generation with the island's best score. Allocation is counted
+ * on the island's thread only, so with parallel breeding the work done on other pool threads shows
+ * up in their allocation samples instead.
+ */
+@Name("tn.esprit.timetable.Generation")
+@Label("GA Generation")
+@Category({"Timetable", "Solver"})
+@StackTrace(false)
+final class GenerationEvent extends Event {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Label("School Id")
+    long schoolId;
+
+    @Label("Island")
+    int island;
+
+    @Label("Generation")
+    int generation;
+
+    @Label("Best Hard Score")
+    int bestHard;
+
+    @Label("Best Soft Score")
+    double bestSoft;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    // -1 where the JVM cannot tell
+    static long allocatedByCurrentThread() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
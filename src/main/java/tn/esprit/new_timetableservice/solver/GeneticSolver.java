@@ -0,0 +1,602 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Genetic algorithm: tournament selection, class-block crossover and single-lesson mutation over
+ * one population or several migrating islands, with greedy, random or warm-start seeding,
+ * stagnation restarts, and a final repair and local-search polish of the winner.
+ */
+@Component(GeneticSolver.NAME)
+public class GeneticSolver implements TimetableSolver {
+    public static final String NAME = "genetic";
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneticSolver.class);
+
+    @Value("${timetable.population.size:50}")
+    private int populationSize;
+
+    @Value("${timetable.mutation.rate:0.01}")
+    private double mutationRate;
+
+    @Value("${timetable.max.generations:500}")
+    private int maxGenerations;
+
+    @Value("${timetable.fitness.verify:false}")
+    private boolean verifyFitness;
+
+    @Value("${timetable.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value("${timetable.islands.count:1}")
+    private int islandCount;
+
+    @Value("${timetable.islands.population.size:${timetable.population.size:50}}")
+    private int islandPopulationSize;
+
+    @Value("${timetable.islands.migration.interval:10}")
+    private int migrationInterval;
+
+    @Value("${timetable.islands.migrants:2}")
+    private int migrantCount;
+
+    @Value("${timetable.islands.topology:ring}")
+    private String migrationTopology;
+
+    @Value("${timetable.seeding.fraction:0.2}")
+    private double seedingFraction;
+
+    @Value("${timetable.polish.enabled:true}")
+    private boolean polishEnabled;
+
+    @Value("${timetable.polish.time.ms:2000}")
+    private long polishTimeMs;
+
+    @Value("${timetable.polish.max.iterations:200000}")
+    private int polishMaxIterations;
+
+    @Value("${timetable.polish.tabu.tenure:20}")
+    private int polishTabuTenure;
+
+    @Value("${timetable.polish.temperature:200}")
+    private double polishTemperature;
+
+    @Value("${timetable.stagnation.generations:20}")
+    private int stagnationGenerations;
+
+    @Value("${timetable.stagnation.action:restart}")
+    private String stagnationAction;
+
+    @Value("${timetable.stagnation.max.restarts:2}")
+    private int maxRestarts;
+
+    @Value("${timetable.reoptimize.variant.mutations:5}")
+    private int variantMutations;
+
+    @Autowired
+    @Qualifier("timetableSolverPool")
+    private ForkJoinPool solverPool;
+
+    @Override
+    public SolverResult solve(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress) {
+        long start = System.currentTimeMillis();
+        long deadline = budget.deadlineFrom(start);
+        SplittableRandom random = budget.newRandom();
+        progress.setPhase(SolverProgress.Phase.INITIALIZING);
+        if (islandCount > 1) {
+            logger.debug("Starting island model optimization with {} islands", islandCount);
+            return optimizeIslands(snapshot, random, progress, start, deadline);
+        }
+        // Initialize population
+        logger.debug("Initializing population");
+        Workspace[] workspaces = createWorkspaces(snapshot);
+        SolverProgress.StepTimer initStep = progress.startStep(SolverProgress.Step.CONSTRUCTION);
+        GeneticTimetable[] population = initializePopulation(snapshot, populationSize, workspaces, random);
+        initStep.done();
+        logger.info("Initialized population with {} timetables", population.length);
+
+        // Optimize using genetic algorithm
+        logger.debug("Starting genetic algorithm optimization");
+        return optimizeTimetable(population, snapshot, workspaces, random, progress, start, deadline);
+    }
+
+    private GeneticTimetable[] initializePopulation(
+            ProblemSnapshot snapshot, int size, Workspace[] workspaces, SplittableRandom random) {
+        logger.debug("Initializing population with {} classes", snapshot.classCount());
+        GeneticTimetable[] population = new GeneticTimetable[size];
+        long[] seeds = childSeeds(random, size);
+        // The first individuals come from randomized greedy construction, the rest from random placement
+        int seeded = seededCount(size);
+
+        forEachChunk(size, workspaces.length, (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                population[i] = new GeneticTimetable(snapshot);
+                initializeIndividual(snapshot, population[i], i, seeded, workspaces[chunk], new SplittableRandom(seeds[i]));
+            }
+        });
+        return population;
+    }
+
+    // Fills an empty timetable as the individual-th member of a fresh population
+    private void initializeIndividual(ProblemSnapshot snapshot, GeneticTimetable timetable, int individual, int seeded,
+                                      Workspace workspace, SplittableRandom random) {
+        if (snapshot.hasReference()) {
+            warmStart(snapshot, timetable, individual, workspace, random);
+        } else if (individual < seeded) {
+            workspace.constructor().construct(timetable, random);
+        } else {
+            for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+                workspace.placeRandomly(timetable, lesson, random);
+            }
+        }
+    }
+
+    private int seededCount(int size) {
+        return (int) Math.round(size * Math.min(1.0, Math.max(0.0, seedingFraction)));
+    }
+
+    // Individual 0 is the reference itself, the others are variants a few random mutations away from it.
+    // Lessons the reference does not cover are placed randomly
+    private void warmStart(ProblemSnapshot snapshot, GeneticTimetable timetable, int individual,
+                           Workspace workspace, SplittableRandom random) {
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            int slot = snapshot.referenceSlot(lesson);
+            if (slot != GeneticTimetable.UNASSIGNED) {
+                timetable.assign(lesson, slot, snapshot.referenceTeacher(lesson), snapshot.referenceRoom(lesson));
+            }
+        }
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            if (!timetable.isAssigned(lesson)) {
+                workspace.placeRandomly(timetable, lesson, random);
+            }
+        }
+        int mutations = individual == 0 ? 0 : 1 + random.nextInt(Math.max(1, variantMutations));
+        for (int m = 0; m < mutations; m++) {
+            workspace.mutate(timetable, random);
+        }
+    }
+
+    private Workspace[] createWorkspaces(ProblemSnapshot snapshot) {
+        int workers = parallelEnabled ? solverPool.getParallelism() : 1;
+        Workspace[] workspaces = new Workspace[workers];
+        for (int i = 0; i < workers; i++) {
+            workspaces[i] = new Workspace(snapshot);
+        }
+        return workspaces;
+    }
+
+    // One seed per individual, drawn sequentially, so results for a fixed seed do not depend on the thread count
+    private long[] childSeeds(SplittableRandom random, int count) {
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+
+    // Splits [0, count) into contiguous chunks, one per workspace, and runs them on the solver pool
+    private void forEachChunk(int count, int chunks, ChunkTask task) {
+        if (chunks <= 1) {
+            task.run(0, 0, count);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            int from = (int) ((long) count * c / chunks);
+            int to = (int) ((long) count * (c + 1) / chunks);
+            tasks.add(() -> {
+                task.run(chunk, from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : solverPool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running solver tasks", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solver task failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private SolverResult optimizeTimetable(
+            GeneticTimetable[] population, ProblemSnapshot snapshot, Workspace[] workspaces,
+            SplittableRandom random, SolverProgress progress, long start, long deadline) {
+        logger.debug("Starting timetable optimization");
+        progress.setPhase(SolverProgress.Phase.OPTIMIZING);
+        Island island = new Island(0, snapshot, population, workspaces, random, progress);
+        SolverProgress.StopReason reason = island.evolve(maxGenerations, deadline);
+        if (reason == SolverProgress.StopReason.OPTIMAL) {
+            logger.info("Optimal timetable found at generation {}", island.generation);
+        } else {
+            logger.info("Optimization ended at generation {} ({}), best score: {}", island.generation, reason, island.bestScore());
+        }
+        GeneticTimetable best = finish(island.best(), snapshot, workspaces[0], random, progress, deadline);
+        return new SolverResult(NAME, best, reason, island.generation, System.currentTimeMillis() - start);
+    }
+
+    // Runs independent sub-populations on the solver pool and exchanges their best individuals
+    // every migrationInterval generations over a ring or fully connected topology
+    private SolverResult optimizeIslands(
+            ProblemSnapshot snapshot, SplittableRandom random, SolverProgress progress, long start, long deadline) {
+        boolean fullyConnected = "full".equalsIgnoreCase(migrationTopology);
+        int interval = Math.max(1, migrationInterval);
+        Island[] islands = new Island[islandCount];
+        long[] seeds = childSeeds(random, islandCount);
+        forEachChunk(islandCount, islandCount, (chunk, from, to) -> {
+            SplittableRandom islandRandom = new SplittableRandom(seeds[chunk]);
+            Workspace[] workspaces = {new Workspace(snapshot)};
+            SolverProgress.StepTimer initStep = progress.startStep(SolverProgress.Step.CONSTRUCTION);
+            GeneticTimetable[] population = initializePopulation(snapshot, islandPopulationSize, workspaces, islandRandom);
+            initStep.done();
+            islands[chunk] = new Island(chunk, snapshot, population, workspaces, islandRandom, progress);
+        });
+        logger.info("Initialized {} islands with {} timetables each", islandCount, islandPopulationSize);
+        progress.setPhase(SolverProgress.Phase.OPTIMIZING);
+
+        SolverProgress.StopReason[] reasons = new SolverProgress.StopReason[islandCount];
+        SolverProgress.StopReason reason = SolverProgress.StopReason.MAX_GENERATIONS;
+        int generations = 0;
+        while (generations < maxGenerations) {
+            if (progress.isCancelled()) {
+                reason = SolverProgress.StopReason.CANCELLED;
+                break;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                reason = SolverProgress.StopReason.TIMEOUT;
+                break;
+            }
+            int epoch = Math.min(interval, maxGenerations - generations);
+            forEachChunk(islandCount, islandCount, (chunk, from, to) -> reasons[chunk] = islands[chunk].evolve(epoch, deadline));
+            generations += epoch;
+            // One optimal island ends the run; stagnation only once every island has stagnated
+            if (Arrays.asList(reasons).contains(SolverProgress.StopReason.OPTIMAL)) {
+                reason = SolverProgress.StopReason.OPTIMAL;
+                break;
+            }
+            if (Arrays.stream(reasons).allMatch(r -> r == SolverProgress.StopReason.STAGNATION)) {
+                reason = SolverProgress.StopReason.STAGNATION;
+                break;
+            }
+            migrate(islands, fullyConnected);
+        }
+
+        Island winner = islands[0];
+        for (Island island : islands) {
+            if (island.bestScore().compareTo(winner.bestScore()) > 0) {
+                winner = island;
+            }
+        }
+        logger.info("Island optimization ended after {} generations ({}), best score: {} on island {}",
+                generations, reason, winner.bestScore(), winner.id);
+        GeneticTimetable best = finish(winner.best(), snapshot, winner.workspaces[0], random, progress, deadline);
+        return new SolverResult(NAME, best, reason, generations, System.currentTimeMillis() - start);
+    }
+
+    // Repairs the GA winner, then runs local search on a copy; most remaining violations only need a few
+    // cheap moves. The search may trade a hard rule that repair enforces (e.g. teacher overload) for a
+    // better raw score, so the polished result is repaired again and only kept if it is still better.
+    // The polish gets at most polishTimeMs and never runs past the run's deadline.
+    private GeneticTimetable finish(GeneticTimetable best, ProblemSnapshot snapshot, Workspace workspace,
+                                    SplittableRandom random, SolverProgress progress, long budgetDeadline) {
+        GeneticTimetable repaired = workspace.repair(best, random, progress);
+        long deadline = Math.min(budgetDeadline, System.currentTimeMillis() + polishTimeMs);
+        if (!polishEnabled || progress.isCancelled() || System.currentTimeMillis() >= deadline) return repaired;
+        progress.setPhase(SolverProgress.Phase.POLISHING);
+        GeneticTimetable candidate = new GeneticTimetable(snapshot);
+        candidate.copyFrom(repaired);
+        SolverProgress.StepTimer searchStep = progress.startStep(SolverProgress.Step.LOCAL_SEARCH);
+        new LocalSearch(snapshot, polishTabuTenure, polishTemperature).polish(candidate, random, polishMaxIterations, deadline, progress);
+        searchStep.done();
+        GeneticTimetable polished = workspace.repair(candidate, random, progress);
+        logger.info("Local search: score {} before, {} after polishing", repaired.score(), polished.score());
+        return polished.score().compareTo(repaired.score()) > 0 ? polished : repaired;
+    }
+
+    // Migrants are copied out of every island before any island is overwritten
+    private void migrate(Island[] islands, boolean fullyConnected) {
+        int count = Math.min(migrantCount, islandPopulationSize - 2);
+        if (count <= 0) return;
+        GeneticTimetable[][] outgoing = new GeneticTimetable[islands.length][];
+        for (int i = 0; i < islands.length; i++) {
+            outgoing[i] = islands[i].emigrants(count);
+        }
+        for (int i = 0; i < islands.length; i++) {
+            List<GeneticTimetable> incoming = new ArrayList<>();
+            if (fullyConnected) {
+                for (int j = 0; j < islands.length; j++) {
+                    if (j != i) incoming.addAll(Arrays.asList(outgoing[j]));
+                }
+                incoming.sort(Comparator.comparing(GeneticTimetable::score).reversed());
+            } else {
+                incoming.addAll(Arrays.asList(outgoing[(i - 1 + islands.length) % islands.length]));
+            }
+            islands[i].immigrate(incoming.subList(0, count));
+        }
+        logger.debug("Migrated {} individuals between {} islands", count, islands.length);
+    }
+
+    private void verifyScore(GeneticTimetable timetable, ProblemSnapshot snapshot) {
+        HardSoftScore incremental = timetable.score();
+        HardSoftScore full = FitnessCheck.calculateScore(timetable, snapshot);
+        if (!full.equals(incremental)) {
+            logger.error("Incremental score {} does not match full recompute {}", incremental, full);
+            throw new IllegalStateException("Incremental score mismatch: " + incremental + " != " + full);
+        }
+    }
+
+    private GeneticTimetable selectParent(GeneticTimetable[] population, int[] hardScores, double[] softScores,
+                                          SplittableRandom random) {
+        int tournamentSize = 3;
+        int best = random.nextInt(population.length);
+        for (int i = 1; i < tournamentSize; i++) {
+            int candidate = random.nextInt(population.length);
+            if (HardSoftScore.compare(hardScores[candidate], softScores[candidate], hardScores[best], softScores[best]) > 0) {
+                best = candidate;
+            }
+        }
+        return population[best];
+    }
+
+    // Uniform crossover over classes: the child starts as a copy of parent1 and takes whole class blocks
+    // from parent2, paying a fitness delta only for the genes that actually change
+    static void crossover(GeneticTimetable parent1, GeneticTimetable parent2, GeneticTimetable child, ProblemSnapshot snapshot, SplittableRandom random) {
+        child.copyFrom(parent1);
+        for (int c = 0; c < snapshot.classCount(); c++) {
+            if (!random.nextBoolean()) {
+                child.copyRange(parent2, snapshot.classLessonStart(c), snapshot.classLessonEnd(c));
+            }
+        }
+    }
+
+    // One GA population with its own buffers, random stream and scratch workspaces
+    private final class Island {
+        private final int id;
+        private final ProblemSnapshot snapshot;
+        private final Workspace[] workspaces;
+        private final SplittableRandom random;
+        private final SolverProgress progress;
+        private final int[] hardScores;
+        private final double[] softScores;
+        private final GeneticTimetable[] emigrants;
+        private GeneticTimetable[] population;
+        private GeneticTimetable[] offspring;
+        private int first = -1;
+        private int second = -1;
+        private int generation;
+        // Stagnation tracking: best score so far and the generation it was reached
+        private int bestSeenHard = Integer.MIN_VALUE;
+        private double bestSeenSoft;
+        private int lastImprovement;
+        private int restarts;
+
+        Island(int id, ProblemSnapshot snapshot, GeneticTimetable[] population, Workspace[] workspaces,
+               SplittableRandom random, SolverProgress progress) {
+            this.id = id;
+            this.snapshot = snapshot;
+            this.population = population;
+            this.workspaces = workspaces;
+            this.random = random;
+            this.progress = progress;
+            this.hardScores = new int[population.length];
+            this.softScores = new double[population.length];
+            this.emigrants = new GeneticTimetable[Math.max(0, Math.min(migrantCount, population.length))];
+            // Two generations of chromosomes are allocated up front and swapped every generation
+            this.offspring = new GeneticTimetable[population.length];
+            for (int i = 0; i < offspring.length; i++) {
+                offspring[i] = new GeneticTimetable(snapshot);
+            }
+        }
+
+        // Runs up to the given number of generations and says why it stopped: OPTIMAL as soon as the best
+        // individual is optimal, STAGNATION once restarts are used up, TIMEOUT, CANCELLED, or MAX_GENERATIONS
+        // when all generations ran
+        SolverProgress.StopReason evolve(int generations, long deadline) {
+            for (int g = 0; g < generations; g++) {
+                if (progress.isCancelled()) return stop(SolverProgress.StopReason.CANCELLED);
+                if (System.currentTimeMillis() >= deadline) return stop(SolverProgress.StopReason.TIMEOUT);
+                SolverProgress.StepTimer generationStep = progress.startStep(SolverProgress.Step.GENERATION);
+                GenerationEvent event = beginGeneration();
+                evaluate();
+                report();
+                int bestHard = hardScores[first];
+                double bestSoft = softScores[first];
+                if (bestHard == 0) {
+                    generationStep.done();
+                    commitGeneration(event, bestHard, bestSoft);
+                    return SolverProgress.StopReason.OPTIMAL;
+                }
+                if (stagnated() && !restart()) {
+                    generationStep.done();
+                    commitGeneration(event, bestHard, bestSoft);
+                    return SolverProgress.StopReason.STAGNATION;
+                }
+                breed();
+                generationStep.done();
+                commitGeneration(event, bestHard, bestSoft);
+                generation++;
+            }
+            return stop(SolverProgress.StopReason.MAX_GENERATIONS);
+        }
+
+        // The allocation counter is only read while a recording has the event enabled; -1 marks it unknown
+        private GenerationEvent beginGeneration() {
+            GenerationEvent event = new GenerationEvent();
+            event.allocatedBytes = event.isEnabled() ? GenerationEvent.allocatedByCurrentThread() : -1;
+            event.begin();
+            return event;
+        }
+
+        private void commitGeneration(GenerationEvent event, int bestHard, double bestSoft) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.schoolId = progress.getSchoolId();
+                event.island = id;
+                event.generation = generation;
+                event.bestHard = bestHard;
+                event.bestSoft = bestSoft;
+                if (event.allocatedBytes >= 0) {
+                    event.allocatedBytes = GenerationEvent.allocatedByCurrentThread() - event.allocatedBytes;
+                }
+                event.commit();
+            }
+        }
+
+        private SolverProgress.StopReason stop(SolverProgress.StopReason reason) {
+            evaluate();
+            return reason;
+        }
+
+        private boolean stagnated() {
+            if (HardSoftScore.compare(hardScores[first], softScores[first], bestSeenHard, bestSeenSoft) > 0) {
+                bestSeenHard = hardScores[first];
+                bestSeenSoft = softScores[first];
+                lastImprovement = generation;
+            }
+            return stagnationGenerations > 0 && generation - lastImprovement >= stagnationGenerations;
+        }
+
+        // Diversity restart: the two elites stay, everyone else is rebuilt like a fresh population
+        private boolean restart() {
+            if (!"restart".equalsIgnoreCase(stagnationAction) || restarts >= maxRestarts) {
+                return false;
+            }
+            restarts++;
+            lastImprovement = generation;
+            logger.info("Island {} stagnated at generation {}, restart {} of {}", id, generation, restarts, maxRestarts);
+            long[] seeds = childSeeds(random, population.length);
+            int seeded = seededCount(population.length);
+            GeneticTimetable[] members = population;
+            forEachChunk(members.length, workspaces.length, (chunk, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (i == first || i == second) continue;
+                    members[i].clear();
+                    initializeIndividual(snapshot, members[i], i, seeded, workspaces[chunk], new SplittableRandom(seeds[i]));
+                }
+            });
+            evaluate();
+            return true;
+        }
+
+        // Cheap enough to run every generation: the counters are kept by each chromosome
+        private void report() {
+            long sum = 0;
+            for (int i = 0; i < population.length; i++) {
+                sum += HardSoftScore.weighted(hardScores[i], softScores[i]);
+            }
+            progress.recordGeneration(generation, HardSoftScore.weighted(hardScores[first], softScores[first]),
+                    (double) sum / population.length, -hardScores[first]);
+        }
+
+        // Scores were kept up to date as the chromosomes were built, so this only collects them and finds the elites
+        private void evaluate() {
+            GeneticTimetable[] scored = population;
+            forEachChunk(scored.length, workspaces.length, (chunk, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    hardScores[i] = scored[i].hardScore();
+                    softScores[i] = scored[i].softScore();
+                    if (verifyFitness) {
+                        verifyScore(scored[i], snapshot);
+                    }
+                }
+            });
+            first = -1;
+            second = -1;
+            for (int i = 0; i < population.length; i++) {
+                if (first < 0 || better(i, first)) {
+                    second = first;
+                    first = i;
+                } else if (second < 0 || better(i, second)) {
+                    second = i;
+                }
+            }
+        }
+
+        // Elites are copied over, the rest of the offspring buffer is filled with children that each
+        // have their own random stream and only read the current population. Every gene a child takes is
+        // scored incrementally as it is assigned, so the evaluation step times each chunk of children
+        private void breed() {
+            int elites = 0;
+            offspring[elites++].copyFrom(population[first]);
+            if (second >= 0) {
+                offspring[elites++].copyFrom(population[second]);
+            }
+            int from = elites;
+            long[] seeds = childSeeds(random, offspring.length);
+            GeneticTimetable[] parents = population;
+            GeneticTimetable[] children = offspring;
+            forEachChunk(children.length - from, workspaces.length, (chunk, start, end) -> {
+                SolverProgress.StepTimer evaluationStep = progress.startStep(SolverProgress.Step.EVALUATION);
+                for (int i = from + start; i < from + end; i++) {
+                    SplittableRandom childRandom = new SplittableRandom(seeds[i]);
+                    GeneticTimetable parent1 = selectParent(parents, hardScores, softScores, childRandom);
+                    GeneticTimetable parent2 = selectParent(parents, hardScores, softScores, childRandom);
+                    crossover(parent1, parent2, children[i], snapshot, childRandom);
+                    if (childRandom.nextDouble() < mutationRate) {
+                        workspaces[chunk].mutate(children[i], childRandom);
+                    }
+                }
+                evaluationStep.done();
+            });
+            population = children;
+            offspring = parents;
+        }
+
+        GeneticTimetable best() {
+            return population[first];
+        }
+
+        HardSoftScore bestScore() {
+            return new HardSoftScore(hardScores[first], softScores[first]);
+        }
+
+        private boolean better(int i, int j) {
+            return HardSoftScore.compare(hardScores[i], softScores[i], hardScores[j], softScores[j]) > 0;
+        }
+
+        // Copies of the best individuals, taken into reused buffers
+        GeneticTimetable[] emigrants(int count) {
+            Integer[] ranked = ranked();
+            for (int i = 0; i < count; i++) {
+                if (emigrants[i] == null) emigrants[i] = new GeneticTimetable(snapshot);
+                emigrants[i].copyFrom(population[ranked[i]]);
+            }
+            return Arrays.copyOf(emigrants, count);
+        }
+
+        // Incoming individuals replace the worst ones
+        void immigrate(List<GeneticTimetable> incoming) {
+            Integer[] ranked = ranked();
+            for (int i = 0; i < incoming.size(); i++) {
+                population[ranked[ranked.length - 1 - i]].copyFrom(incoming.get(i));
+            }
+            evaluate();
+        }
+
+        private Integer[] ranked() {
+            Integer[] ranked = new Integer[population.length];
+            for (int i = 0; i < ranked.length; i++) ranked[i] = i;
+            Arrays.sort(ranked, (i, j) -> HardSoftScore.compare(hardScores[j], softScores[j], hardScores[i], softScores[i]));
+            return ranked;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+}
@@ -0,0 +1,118 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays chromosome: one gene per snapshot lesson, stored as parallel int arrays
+ * of time slot, teacher and classroom indexes. Unplaced lessons hold {@link #UNASSIGNED}.
+ * Every gene change is mirrored into the attached {@link FitnessState}, so {@link #score()}
+ * is always current. Instances are meant to be allocated once per run and overwritten in place.
+ */
+public final class GeneticTimetable {
+    public static final int UNASSIGNED = -1;
+
+    private final int[] slots;
+    private final int[] teachers;
+    private final int[] rooms;
+    private final FitnessState fitness;
+
+    public GeneticTimetable(ProblemSnapshot snapshot) {
+        int lessonCount = snapshot.lessonCount();
+        this.slots = new int[lessonCount];
+        this.teachers = new int[lessonCount];
+        this.rooms = new int[lessonCount];
+        this.fitness = new FitnessState(snapshot);
+        Arrays.fill(slots, UNASSIGNED);
+        Arrays.fill(teachers, UNASSIGNED);
+        Arrays.fill(rooms, UNASSIGNED);
+    }
+
+    public int size() { return slots.length; }
+    public int slot(int lesson) { return slots[lesson]; }
+    public int teacher(int lesson) { return teachers[lesson]; }
+    public int room(int lesson) { return rooms[lesson]; }
+    public boolean isAssigned(int lesson) { return slots[lesson] != UNASSIGNED; }
+
+    public HardSoftScore score() {
+        return fitness.score();
+    }
+
+    public int hardScore() {
+        return fitness.hardScore();
+    }
+
+    public double softScore() {
+        return fitness.softScore();
+    }
+
+    // Single-number view of the score for logs and progress events
+    public int fitness() {
+        return HardSoftScore.weighted(fitness.hardScore(), fitness.softScore());
+    }
+
+    public int hardViolations() {
+        return fitness.hardViolations();
+    }
+
+    public int changedLessons() {
+        return fitness.changedLessons();
+    }
+
+    // Teacher load variance behind the soft score's balance term
+    double teacherLoadVariance() {
+        return fitness.variance();
+    }
+
+    // Constant-time occupancy queries backed by the fitness counters
+    public boolean isTeacherBusy(int teacher, int slot) { return fitness.teacherOccupancy(teacher, slot) > 0; }
+    public boolean isRoomBusy(int room, int slot) { return fitness.roomOccupancy(room, slot) > 0; }
+    public boolean isClassBusy(int clazz, int slot) { return fitness.classOccupancy(clazz, slot) > 0; }
+    public int teacherHours(int teacher) { return fitness.teacherHours(teacher); }
+
+    public void assign(int lesson, int slot, int teacher, int room) {
+        if (slots[lesson] != UNASSIGNED) {
+            fitness.remove(lesson, slots[lesson], teachers[lesson], rooms[lesson]);
+        }
+        slots[lesson] = slot;
+        teachers[lesson] = teacher;
+        rooms[lesson] = room;
+        if (slot != UNASSIGNED) {
+            fitness.add(lesson, slot, teacher, room);
+        }
+    }
+
+    public void unassign(int lesson) {
+        assign(lesson, UNASSIGNED, UNASSIGNED, UNASSIGNED);
+    }
+
+    public void clear() {
+        Arrays.fill(slots, UNASSIGNED);
+        Arrays.fill(teachers, UNASSIGNED);
+        Arrays.fill(rooms, UNASSIGNED);
+        fitness.reset();
+    }
+
+    public int assignedCount() {
+        int count = 0;
+        for (int slot : slots) {
+            if (slot != UNASSIGNED) count++;
+        }
+        return count;
+    }
+
+    public void copyFrom(GeneticTimetable other) {
+        System.arraycopy(other.slots, 0, slots, 0, slots.length);
+        System.arraycopy(other.teachers, 0, teachers, 0, teachers.length);
+        System.arraycopy(other.rooms, 0, rooms, 0, rooms.length);
+        fitness.copyFrom(other.fitness);
+    }
+
+    // Takes genes [from, to) from other, applying a fitness delta only for genes that differ
+    public void copyRange(GeneticTimetable other, int from, int to) {
+        for (int l = from; l < to; l++) {
+            if (slots[l] != other.slots[l] || teachers[l] != other.teachers[l] || rooms[l] != other.rooms[l]) {
+                assign(l, other.slots[l], other.teachers[l], other.rooms[l]);
+            }
+        }
+    }
+}
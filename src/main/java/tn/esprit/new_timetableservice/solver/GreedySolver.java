@@ -0,0 +1,81 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * Randomized DSatur restarts: builds a timetable greedily, repairs it and keeps the best of as
+ * many constructions as the budget allows. No improvement phase, so it is the fastest way to a
+ * feasible timetable and a baseline for the other solvers. With a reference timetable every
+ * construction keeps the reference lessons and only fills in the rest.
+ */
+@Component(GreedySolver.NAME)
+public class GreedySolver implements TimetableSolver {
+    public static final String NAME = "greedy";
+
+    private static final Logger logger = LoggerFactory.getLogger(GreedySolver.class);
+
+    @Value("${timetable.greedy.restarts:50}")
+    private int restarts;
+
+    @Override
+    public SolverResult solve(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress) {
+        long start = System.currentTimeMillis();
+        long deadline = budget.deadlineFrom(start);
+        SplittableRandom random = budget.newRandom();
+        progress.setPhase(SolverProgress.Phase.OPTIMIZING);
+        Workspace workspace = new Workspace(snapshot);
+        GeneticTimetable candidate = new GeneticTimetable(snapshot);
+        GeneticTimetable best = null;
+
+        SolverProgress.StopReason reason = SolverProgress.StopReason.MAX_GENERATIONS;
+        int runs = 0;
+        while (runs < Math.max(1, restarts)) {
+            // At least one construction, so there is always a result
+            if (runs > 0 && progress.isCancelled()) {
+                reason = SolverProgress.StopReason.CANCELLED;
+                break;
+            }
+            if (runs > 0 && System.currentTimeMillis() >= deadline) {
+                reason = SolverProgress.StopReason.TIMEOUT;
+                break;
+            }
+            candidate.clear();
+            SolverProgress.StepTimer constructionStep = progress.startStep(SolverProgress.Step.CONSTRUCTION);
+            if (snapshot.hasReference()) {
+                startFromReference(snapshot, candidate, workspace, random);
+            } else {
+                workspace.constructor().construct(candidate, random);
+            }
+            constructionStep.done();
+            GeneticTimetable repaired = workspace.repair(candidate, random, progress);
+            if (best == null || repaired.score().compareTo(best.score()) > 0) {
+                best = repaired;
+            }
+            progress.recordGeneration(runs, best.fitness(), repaired.fitness(), best.hardViolations());
+            runs++;
+            if (best.score().isFeasible()) {
+                reason = SolverProgress.StopReason.OPTIMAL;
+                break;
+            }
+        }
+        logger.info("Greedy: best score {} after {} constructions ({})", best.score(), runs, reason);
+        return new SolverResult(NAME, best, reason, runs, System.currentTimeMillis() - start);
+    }
+
+    // The reference lessons stay where they are and only the lessons it does not cover are constructed
+    private void startFromReference(ProblemSnapshot snapshot, GeneticTimetable timetable, Workspace workspace,
+                                    SplittableRandom random) {
+        for (int lesson = 0; lesson < snapshot.lessonCount(); lesson++) {
+            int slot = snapshot.referenceSlot(lesson);
+            if (slot != GeneticTimetable.UNASSIGNED) {
+                timetable.assign(lesson, slot, snapshot.referenceTeacher(lesson), snapshot.referenceRoom(lesson));
+            }
+        }
+        workspace.constructor().complete(timetable, random);
+    }
+}
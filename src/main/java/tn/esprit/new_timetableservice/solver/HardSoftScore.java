@@ -0,0 +1,60 @@
+package tn.esprit.new_timetableservice.solver;
+
+/**
+ * Score of a timetable in two levels that are counted separately. The hard score is minus the
+ * units of hard-constraint violation, so it is zero exactly when the timetable is feasible. The
+ * soft score sums the preferences: met requirements, matching rooms and teachers, subjects spread
+ * over days, even teacher load and, when re-optimizing, unchanged lessons. Scores compare
+ * lexicographically, so no soft gain makes up for a hard violation.
+ */
+public final class HardSoftScore implements Comparable<HardSoftScore> {
+    // Scale of the single-number fitness shown in logs and progress events; never used to compare
+    public static final int HARD_WEIGHT = 1000;
+
+    private final int hard;
+    private final double soft;
+
+    public HardSoftScore(int hard, double soft) {
+        this.hard = hard;
+        this.soft = soft;
+    }
+
+    public int hard() { return hard; }
+    public double soft() { return soft; }
+    public boolean isFeasible() { return hard == 0; }
+
+    // Allocation-free comparison for hot loops that keep the two levels in separate arrays
+    public static int compare(int hard1, double soft1, int hard2, double soft2) {
+        return hard1 != hard2 ? Integer.compare(hard1, hard2) : Double.compare(soft1, soft2);
+    }
+
+    public static int weighted(int hard, double soft) {
+        return (int) Math.round((double) hard * HARD_WEIGHT + soft);
+    }
+
+    public int weighted() {
+        return weighted(hard, soft);
+    }
+
+    @Override
+    public int compareTo(HardSoftScore other) {
+        return compare(hard, soft, other.hard, other.soft);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HardSoftScore other)) return false;
+        return hard == other.hard && Double.compare(soft, other.soft) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(hard) + Double.hashCode(soft);
+    }
+
+    @Override
+    public String toString() {
+        return hard + "hard/" + soft + "soft";
+    }
+}
@@ -0,0 +1,169 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Tabu-guided simulated annealing over a single chromosome. Moves re-slot a lesson, swap the
+ * slots of two lessons of the same class, or change a lesson's teacher or room. Each move is
+ * applied in place and scored through the chromosome's incremental fitness, then undone if it
+ * is rejected. Moving a lesson back to a slot it left within the tabu tenure is refused unless
+ * it would beat the best score seen so far.
+ */
+public final class LocalSearch {
+    private final ProblemSnapshot snapshot;
+    private final int tabuTenure;
+    private final double initialTemperature;
+    private final int[] tabuUntil; // lesson * slotCount + slot -> first iteration the move is allowed again
+    private int iterations;
+
+    public LocalSearch(ProblemSnapshot snapshot, int tabuTenure, double initialTemperature) {
+        this.snapshot = snapshot;
+        this.tabuTenure = tabuTenure;
+        this.initialTemperature = initialTemperature;
+        this.tabuUntil = new int[snapshot.lessonCount() * snapshot.slotCount()];
+    }
+
+    /**
+     * Improves the timetable in place until maxIterations or the deadline is reached, or the run
+     * is cancelled, and leaves it holding the best state found. Returns that state's score.
+     */
+    public HardSoftScore polish(GeneticTimetable timetable, SplittableRandom random, int maxIterations, long deadline,
+                      SolverProgress progress) {
+        int lessons = snapshot.lessonCount();
+        int slots = snapshot.slotCount();
+        iterations = 0;
+        if (lessons == 0 || slots == 0 || maxIterations <= 0) return timetable.score();
+
+        Arrays.fill(tabuUntil, 0);
+        GeneticTimetable best = new GeneticTimetable(snapshot);
+        best.copyFrom(timetable);
+        int bestHard = timetable.hardScore();
+        double bestSoft = timetable.softScore();
+        int currentHard = bestHard;
+        double currentSoft = bestSoft;
+        long start = System.currentTimeMillis();
+        long budget = Math.max(1, deadline - start);
+        double cooled = 0;
+
+        int iter = 1;
+        for (; iter <= maxIterations; iter++) {
+            if ((iter & 1023) == 0) {
+                long now = System.currentTimeMillis();
+                if (now >= deadline || progress.isCancelled()) break;
+                cooled = Math.max((double) iter / maxIterations, (double) (now - start) / budget);
+            }
+            double temperature = Math.max(1.0, initialTemperature * (1 - cooled));
+
+            int lesson = random.nextInt(lessons);
+            int oldSlot = timetable.slot(lesson);
+            int oldTeacher = timetable.teacher(lesson);
+            int oldRoom = timetable.room(lesson);
+            int move = random.nextInt(10);
+
+            if (move < 3 && oldSlot != GeneticTimetable.UNASSIGNED) {
+                // Swap slots with another lesson of the same class
+                int clazz = snapshot.lessonClass(lesson);
+                int from = snapshot.classLessonStart(clazz);
+                int other = from + random.nextInt(snapshot.classLessonEnd(clazz) - from);
+                int otherSlot = timetable.slot(other);
+                if (other == lesson || otherSlot == GeneticTimetable.UNASSIGNED || otherSlot == oldSlot) continue;
+                int otherTeacher = timetable.teacher(other);
+                int otherRoom = timetable.room(other);
+                timetable.assign(lesson, otherSlot, oldTeacher, oldRoom);
+                timetable.assign(other, oldSlot, otherTeacher, otherRoom);
+                int hard = timetable.hardScore();
+                double soft = timetable.softScore();
+                boolean tabu = tabuUntil[lesson * slots + otherSlot] > iter || tabuUntil[other * slots + oldSlot] > iter;
+                boolean aspires = HardSoftScore.compare(hard, soft, bestHard, bestSoft) > 0;
+                if (accept(hard - currentHard, soft - currentSoft, tabu && !aspires, temperature, random)) {
+                    tabuUntil[lesson * slots + oldSlot] = iter + tabuTenure;
+                    tabuUntil[other * slots + otherSlot] = iter + tabuTenure;
+                    currentHard = hard;
+                    currentSoft = soft;
+                } else {
+                    timetable.assign(other, otherSlot, otherTeacher, otherRoom);
+                    timetable.assign(lesson, oldSlot, oldTeacher, oldRoom);
+                }
+            } else if (move < 5 && oldSlot != GeneticTimetable.UNASSIGNED) {
+                // Change teacher or room, keeping the slot
+                int subject = snapshot.lessonSubject(lesson);
+                int teacher = oldTeacher;
+                int room = oldRoom;
+                if (random.nextBoolean()) {
+                    int[] teachers = snapshot.eligibility().teachers(snapshot.classProgram(snapshot.lessonClass(lesson)), subject);
+                    if (teachers.length < 2) continue;
+                    teacher = teachers[random.nextInt(teachers.length)];
+                } else {
+                    int[] rooms = snapshot.eligibility().rooms(subject);
+                    if (rooms.length < 2) continue;
+                    room = rooms[random.nextInt(rooms.length)];
+                }
+                if (teacher == oldTeacher && room == oldRoom) continue;
+                timetable.assign(lesson, oldSlot, teacher, room);
+                int hard = timetable.hardScore();
+                double soft = timetable.softScore();
+                if (accept(hard - currentHard, soft - currentSoft, false, temperature, random)) {
+                    currentHard = hard;
+                    currentSoft = soft;
+                } else {
+                    timetable.assign(lesson, oldSlot, oldTeacher, oldRoom);
+                }
+            } else {
+                // Move the lesson to another slot, placing it first if it is unassigned
+                int slot = random.nextInt(slots);
+                if (slot == oldSlot) continue;
+                int teacher = oldTeacher;
+                int room = oldRoom;
+                if (oldSlot == GeneticTimetable.UNASSIGNED) {
+                    int subject = snapshot.lessonSubject(lesson);
+                    int[] teachers = snapshot.eligibility().teachers(snapshot.classProgram(snapshot.lessonClass(lesson)), subject);
+                    int[] rooms = snapshot.eligibility().rooms(subject);
+                    if (teachers.length == 0 || rooms.length == 0) continue;
+                    teacher = teachers[random.nextInt(teachers.length)];
+                    room = rooms[random.nextInt(rooms.length)];
+                }
+                timetable.assign(lesson, slot, teacher, room);
+                int hard = timetable.hardScore();
+                double soft = timetable.softScore();
+                boolean tabu = tabuUntil[lesson * slots + slot] > iter;
+                boolean aspires = HardSoftScore.compare(hard, soft, bestHard, bestSoft) > 0;
+                if (accept(hard - currentHard, soft - currentSoft, tabu && !aspires, temperature, random)) {
+                    if (oldSlot != GeneticTimetable.UNASSIGNED) {
+                        tabuUntil[lesson * slots + oldSlot] = iter + tabuTenure;
+                    }
+                    currentHard = hard;
+                    currentSoft = soft;
+                } else {
+                    timetable.assign(lesson, oldSlot, oldTeacher, oldRoom);
+                }
+            }
+
+            if (HardSoftScore.compare(currentHard, currentSoft, bestHard, bestSoft) > 0) {
+                bestHard = currentHard;
+                bestSoft = currentSoft;
+                best.copyFrom(timetable);
+            }
+        }
+
+        iterations = iter - 1;
+        timetable.copyFrom(best);
+        return best.score();
+    }
+
+    /** Moves tried by the last call to {@link #polish}. */
+    public int iterations() {
+        return iterations;
+    }
+
+    // Lexicographic Metropolis rule: a hard change decides on its own, weighted so that losing one hard
+    // unit is about as unlikely as a large soft loss; soft changes only count when the hard score holds
+    private static boolean accept(int hardDelta, double softDelta, boolean tabu, double temperature, SplittableRandom random) {
+        if (tabu) return false;
+        if (hardDelta != 0) {
+            return hardDelta > 0 || random.nextDouble() < Math.exp((double) hardDelta * HardSoftScore.HARD_WEIGHT / temperature);
+        }
+        if (softDelta >= 0) return true;
+        return random.nextDouble() < Math.exp(softDelta / temperature);
+    }
+}
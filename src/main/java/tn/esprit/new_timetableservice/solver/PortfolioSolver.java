@@ -0,0 +1,164 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Races several solvers under one shared deadline and keeps the best result. Members run on their
+ * own executor, so they never hold solver pool threads the GA needs for its own tasks; a member
+ * that waits for a thread starts with whatever is left of the deadline. Members are configured as
+ * a list of solver names; a name may repeat, every member getting its own seed. As soon as one
+ * member reports a timetable without hard violations the others are cancelled, so they hand back
+ * their best so far, and the leader finishes its run.
+ */
+@Component(PortfolioSolver.NAME)
+public class PortfolioSolver implements TimetableSolver {
+    public static final String NAME = "portfolio";
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioSolver.class);
+
+    @Value("${timetable.portfolio.members:genetic,annealing,greedy}")
+    private List<String> members;
+
+    @Value("${timetable.portfolio.poll.ms:50}")
+    private long pollMs;
+
+    // Every other solver bean; Spring leaves this one out of its own map
+    @Autowired
+    private Map<String, TimetableSolver> solvers;
+
+    @Autowired
+    @Qualifier("timetablePortfolioExecutor")
+    private AsyncTaskExecutor memberExecutor;
+
+    @Override
+    public SolverResult solve(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress) {
+        long start = System.currentTimeMillis();
+        List<TimetableSolver> racers = new ArrayList<>(members.size());
+        for (String name : members) {
+            TimetableSolver solver = solvers.get(name.trim());
+            if (solver == null) {
+                throw new IllegalArgumentException("Unknown portfolio member: " + name + ", expected one of " + solvers.keySet());
+            }
+            racers.add(solver);
+        }
+        if (racers.isEmpty()) {
+            throw new IllegalArgumentException("timetable.portfolio.members is empty");
+        }
+
+        // Member seeds are drawn from the run seed, so a seeded portfolio starts every member the same way
+        SplittableRandom random = budget.newRandom();
+        long deadline = budget.deadlineFrom(start);
+        SolverProgress[] progresses = new SolverProgress[racers.size()];
+        CompletionService<SolverResult> completion = new ExecutorCompletionService<>(memberExecutor);
+        Map<Future<SolverResult>, Integer> running = new HashMap<>();
+        for (int i = 0; i < racers.size(); i++) {
+            TimetableSolver solver = racers.get(i);
+            Long seed = budget.getSeed() != null ? random.nextLong() : null;
+            SolverProgress memberProgress = progress.child();
+            progresses[i] = memberProgress;
+            // The time limit is taken when the member starts, so a queued member cannot overrun the deadline
+            running.put(completion.submit(() -> {
+                memberProgress.start();
+                return solver.solve(snapshot, new SolverBudget(Math.max(0, deadline - System.currentTimeMillis()), seed),
+                        memberProgress);
+            }), i);
+        }
+        progress.setPhase(SolverProgress.Phase.OPTIMIZING);
+        logger.info("Racing {} solvers: {}", racers.size(), members);
+
+        SolverResult best = null;
+        int leader = -1;
+        int failures = 0;
+        SolverProgress.GenerationStats[] forwarded = new SolverProgress.GenerationStats[progresses.length];
+        int updates = 0;
+        try {
+            while (!running.isEmpty()) {
+                Future<SolverResult> done = completion.poll(pollMs, TimeUnit.MILLISECONDS);
+                if (done != null) {
+                    int member = running.remove(done);
+                    try {
+                        SolverResult result = done.get();
+                        logger.info("Portfolio member {} ({}) finished with score {} ({})",
+                                member, result.getSolver(), result.getScore(), result.getStopReason());
+                        if (best == null || result.getScore().compareTo(best.getScore()) > 0) {
+                            best = result;
+                        }
+                        if (leader < 0 && result.getHardViolations() == 0) {
+                            leader = lead(member, progresses, start);
+                        }
+                    } catch (ExecutionException e) {
+                        failures++;
+                        logger.error("Portfolio member {} failed", member, e.getCause());
+                    }
+                }
+                if (progress.isCancelled()) {
+                    for (SolverProgress p : progresses) p.cancel();
+                }
+                updates = forward(progresses, forwarded, progress, updates);
+                for (int i = 0; i < progresses.length && leader < 0; i++) {
+                    SolverProgress.GenerationStats stats = progresses[i].getLatest();
+                    if (stats != null && stats.getHardViolations() == 0) {
+                        leader = lead(i, progresses, start);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (SolverProgress p : progresses) p.cancel();
+            throw new IllegalStateException("Interrupted while racing solvers", e);
+        }
+        if (best == null) {
+            throw new IllegalStateException("All " + failures + " portfolio members failed");
+        }
+
+        // Members stopped by the race itself report CANCELLED, which says nothing about the run
+        SolverProgress.StopReason reason = progress.isCancelled() ? SolverProgress.StopReason.CANCELLED
+                : leader >= 0 ? SolverProgress.StopReason.OPTIMAL : best.getStopReason();
+        logger.info("Portfolio winner: {} with score {}", best.getSolver(), best.getScore());
+        return new SolverResult(NAME + ":" + best.getSolver(), best.getSolution(), reason,
+                best.getIterations(), System.currentTimeMillis() - start);
+    }
+
+    // The run's progress follows the member with the best fitness. Members count generations differently
+    // (annealing reports moves), so the run numbers its own updates instead of passing theirs on; a new one
+    // is recorded whenever any member has reported since the last. Returns the updates recorded so far.
+    private int forward(SolverProgress[] progresses, SolverProgress.GenerationStats[] forwarded, SolverProgress progress,
+                        int updates) {
+        SolverProgress.GenerationStats top = null;
+        boolean changed = false;
+        for (int i = 0; i < progresses.length; i++) {
+            SolverProgress.GenerationStats stats = progresses[i].getLatest();
+            if (stats != forwarded[i]) {
+                forwarded[i] = stats;
+                changed = true;
+            }
+            if (stats != null && (top == null || stats.getBestFitness() > top.getBestFitness())) {
+                top = stats;
+            }
+        }
+        if (!changed || top == null) {
+            return updates;
+        }
+        progress.recordGeneration(updates + 1, top.getBestFitness(), top.getMeanFitness(), top.getHardViolations());
+        return updates + 1;
+    }
+
+    // The first member without hard violations keeps running, everyone else stops with their best so far
+    private int lead(int leader, SolverProgress[] progresses, long start) {
+        logger.info("Portfolio member {} is feasible after {} ms, cancelling the others",
+                leader, System.currentTimeMillis() - start);
+        for (int i = 0; i < progresses.length; i++) {
+            if (i != leader) progresses[i].cancel();
+        }
+        return leader;
+    }
+}
@@ -0,0 +1,408 @@
+package tn.esprit.new_timetableservice.solver;
+
+import tn.esprit.new_timetableservice.entities.*;
+import tn.esprit.new_timetableservice.entities.Class;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable, solver-only view of a school. Every class, program, subject, teacher,
+ * classroom and time slot is mapped to a dense int index (its position in the list
+ * it was built from), so the genetic algorithm never touches JPA entities.
+ */
+public final class ProblemSnapshot {
+    private final int classCount;
+    private final long[] programIds;
+    private final long[] subjectIds;
+    private final long[] teacherIds;
+    private final long[] roomIds;
+    private final long[] slotIds;
+
+    private final int[] classProgram;
+    private final int[] subjectRoomType;
+    private final int[] roomType;
+    private final int[] teacherSubject;
+    private final int[] teacherMaxHours;
+    private final boolean[] teacherAvailable;
+    private final boolean[] teacherPrograms; // teacher * programCount + program
+    private final int[] slotDay;
+    private final int dayCount;
+
+    private final int[][] programSubjects;
+    private final int[][] programHours;
+    private final int[] requiredHours; // program * subjectCount + subject
+
+    // One lesson per required hour, grouped by class in class order
+    private final int[] lessonClass;
+    private final int[] lessonSubject;
+    private final int[] classLessonStart; // classCount + 1 offsets into the lesson arrays
+
+    private final EligibilityIndex eligibility;
+
+    // Fixed lessons: already placed, never part of a chromosome, but they occupy their class, teacher
+    // and room and count towards requirements and teacher hours
+    private final int[] fixedClass;
+    private final int[] fixedSubject;
+    private final int[] fixedSlot;
+    private final int[] fixedTeacher;
+    private final int[] fixedRoom;
+
+    // Optional per-lesson assignment to stay close to (warm start); null when there is none
+    private final int[] referenceSlot;
+    private final int[] referenceTeacher;
+    private final int[] referenceRoom;
+    private final int referenceCount;
+    private final int changePenalty;
+
+    private ProblemSnapshot(Builder b) {
+        this.classCount = b.classProgram.length;
+        this.programIds = b.programIds;
+        this.subjectIds = b.subjectIds;
+        this.teacherIds = b.teacherIds;
+        this.roomIds = b.roomIds;
+        this.slotIds = b.slotIds;
+        this.classProgram = b.classProgram;
+        this.subjectRoomType = b.subjectRoomType;
+        this.roomType = b.roomType;
+        this.teacherSubject = b.teacherSubject;
+        this.teacherMaxHours = b.teacherMaxHours;
+        this.teacherAvailable = b.teacherAvailable;
+        this.teacherPrograms = b.teacherPrograms;
+        this.slotDay = b.slotDay;
+        this.dayCount = b.dayCount;
+        this.programSubjects = b.programSubjects;
+        this.programHours = b.programHours;
+        this.requiredHours = b.requiredHours;
+        this.lessonClass = b.lessonClass;
+        this.lessonSubject = b.lessonSubject;
+        this.classLessonStart = b.classLessonStart;
+        this.eligibility = new EligibilityIndex(this);
+        this.fixedClass = new int[0];
+        this.fixedSubject = new int[0];
+        this.fixedSlot = new int[0];
+        this.fixedTeacher = new int[0];
+        this.fixedRoom = new int[0];
+        this.referenceSlot = null;
+        this.referenceTeacher = null;
+        this.referenceRoom = null;
+        this.referenceCount = 0;
+        this.changePenalty = 0;
+    }
+
+    // Shares everything but the lessons, fixed lessons and reference with base
+    private ProblemSnapshot(ProblemSnapshot base, int[] lessonClass, int[] lessonSubject, int[] classLessonStart,
+                            int[][] fixed, int[][] reference, int changePenalty) {
+        this.classCount = base.classCount;
+        this.programIds = base.programIds;
+        this.subjectIds = base.subjectIds;
+        this.teacherIds = base.teacherIds;
+        this.roomIds = base.roomIds;
+        this.slotIds = base.slotIds;
+        this.classProgram = base.classProgram;
+        this.subjectRoomType = base.subjectRoomType;
+        this.roomType = base.roomType;
+        this.teacherSubject = base.teacherSubject;
+        this.teacherMaxHours = base.teacherMaxHours;
+        this.teacherAvailable = base.teacherAvailable;
+        this.teacherPrograms = base.teacherPrograms;
+        this.slotDay = base.slotDay;
+        this.dayCount = base.dayCount;
+        this.programSubjects = base.programSubjects;
+        this.programHours = base.programHours;
+        this.requiredHours = base.requiredHours;
+        this.lessonClass = lessonClass;
+        this.lessonSubject = lessonSubject;
+        this.classLessonStart = classLessonStart;
+        this.eligibility = base.eligibility;
+        this.fixedClass = fixed[0];
+        this.fixedSubject = fixed[1];
+        this.fixedSlot = fixed[2];
+        this.fixedTeacher = fixed[3];
+        this.fixedRoom = fixed[4];
+        this.referenceSlot = reference == null ? null : reference[0];
+        this.referenceTeacher = reference == null ? null : reference[1];
+        this.referenceRoom = reference == null ? null : reference[2];
+        int count = 0;
+        if (reference != null) {
+            for (int slot : referenceSlot) {
+                if (slot != GeneticTimetable.UNASSIGNED) count++;
+            }
+        }
+        this.referenceCount = count;
+        this.changePenalty = changePenalty;
+    }
+
+    /**
+     * Builds a snapshot from already loaded entities. The position of each entity in its
+     * list becomes its index, so callers map solver results back through the same lists.
+     */
+    public static ProblemSnapshot from(
+            List<Class> classes,
+            List<Program> programs,
+            List<Subject> subjects,
+            List<Teacher> teachers,
+            List<Classroom> classrooms,
+            List<TimeSlot> timeSlots,
+            Map<Long, List<ProgramSubject>> requirements,
+            Map<Long, List<TeacherAvailability>> teacherAvailabilities) {
+        Builder b = new Builder();
+        Map<Long, Integer> programIndex = indexOf(programs, Program::getId);
+        Map<Long, Integer> subjectIndex = indexOf(subjects, Subject::getId);
+        Map<String, Integer> roomTypeIndex = new HashMap<>();
+
+        b.programIds = programs.stream().mapToLong(Program::getId).toArray();
+        b.subjectIds = subjects.stream().mapToLong(Subject::getId).toArray();
+        b.teacherIds = teachers.stream().mapToLong(Teacher::getId).toArray();
+        b.roomIds = classrooms.stream().mapToLong(Classroom::getId).toArray();
+        b.slotIds = timeSlots.stream().mapToLong(TimeSlot::getId).toArray();
+
+        b.subjectRoomType = new int[subjects.size()];
+        for (int s = 0; s < subjects.size(); s++) {
+            b.subjectRoomType[s] = roomTypeCode(subjects.get(s).getRoomType(), roomTypeIndex);
+        }
+        b.roomType = new int[classrooms.size()];
+        for (int r = 0; r < classrooms.size(); r++) {
+            b.roomType[r] = roomTypeCode(classrooms.get(r).getType(), roomTypeIndex);
+        }
+
+        int programCount = programs.size();
+        b.teacherSubject = new int[teachers.size()];
+        b.teacherMaxHours = new int[teachers.size()];
+        b.teacherAvailable = new boolean[teachers.size()];
+        b.teacherPrograms = new boolean[teachers.size() * programCount];
+        for (int t = 0; t < teachers.size(); t++) {
+            Teacher teacher = teachers.get(t);
+            b.teacherSubject[t] = subjectIndex.getOrDefault(teacher.getSubject().getId(), -1);
+            b.teacherMaxHours[t] = teacher.getMaxHoursPerWeek() != null ? teacher.getMaxHoursPerWeek() : 0;
+            List<TeacherAvailability> availabilities = teacherAvailabilities.getOrDefault(teacher.getId(), Collections.emptyList());
+            b.teacherAvailable[t] = availabilities.isEmpty() ||
+                    availabilities.stream().anyMatch(ta -> Boolean.TRUE.equals(ta.getIsAvailable()));
+            for (Program p : teacher.getPrograms()) {
+                Integer idx = programIndex.get(p.getId());
+                if (idx != null) {
+                    b.teacherPrograms[t * programCount + idx] = true;
+                }
+            }
+        }
+
+        Map<String, Integer> dayIndex = new HashMap<>();
+        b.slotDay = new int[timeSlots.size()];
+        for (int i = 0; i < timeSlots.size(); i++) {
+            b.slotDay[i] = dayIndex.computeIfAbsent(timeSlots.get(i).getDay(), k -> dayIndex.size());
+        }
+        b.dayCount = dayIndex.size();
+
+        // Duplicate rows for the same subject are merged so each (program, subject) has one requirement
+        b.programSubjects = new int[programCount][];
+        b.programHours = new int[programCount][];
+        b.requiredHours = new int[programCount * subjects.size()];
+        for (int p = 0; p < programCount; p++) {
+            Map<Integer, Integer> hoursBySubject = new LinkedHashMap<>();
+            for (ProgramSubject ps : requirements.getOrDefault(programs.get(p).getId(), Collections.emptyList())) {
+                Integer s = subjectIndex.get(ps.getSubject().getId());
+                if (s == null) {
+                    throw new IllegalArgumentException("Subject " + ps.getSubject().getId() + " missing from snapshot subjects");
+                }
+                hoursBySubject.merge(s, ps.getHoursPerWeek(), Integer::sum);
+            }
+            b.programSubjects[p] = hoursBySubject.keySet().stream().mapToInt(Integer::intValue).toArray();
+            b.programHours[p] = hoursBySubject.values().stream().mapToInt(Integer::intValue).toArray();
+            for (int k = 0; k < b.programSubjects[p].length; k++) {
+                b.requiredHours[p * subjects.size() + b.programSubjects[p][k]] = b.programHours[p][k];
+            }
+        }
+
+        b.classProgram = new int[classes.size()];
+        int lessons = 0;
+        for (int c = 0; c < classes.size(); c++) {
+            Integer p = programIndex.get(classes.get(c).getProgram().getId());
+            if (p == null) {
+                throw new IllegalArgumentException("Program " + classes.get(c).getProgram().getId() + " missing from snapshot programs");
+            }
+            b.classProgram[c] = p;
+            for (int hours : b.programHours[p]) {
+                lessons += hours;
+            }
+        }
+        b.lessonClass = new int[lessons];
+        b.lessonSubject = new int[lessons];
+        b.classLessonStart = new int[classes.size() + 1];
+        int l = 0;
+        for (int c = 0; c < classes.size(); c++) {
+            b.classLessonStart[c] = l;
+            int p = b.classProgram[c];
+            for (int k = 0; k < b.programSubjects[p].length; k++) {
+                for (int h = 0; h < b.programHours[p][k]; h++) {
+                    b.lessonClass[l] = c;
+                    b.lessonSubject[l] = b.programSubjects[p][k];
+                    l++;
+                }
+            }
+        }
+        b.classLessonStart[classes.size()] = l;
+        return new ProblemSnapshot(b);
+    }
+
+    /**
+     * Same problem with a reference assignment per lesson, e.g. the currently stored timetable,
+     * given as slot, teacher and room arrays. Every referenced lesson that ends up with a different slot, teacher or room costs
+     * changePenalty; lessons holding {@link GeneticTimetable#UNASSIGNED} have no reference.
+     */
+    public ProblemSnapshot withReference(int[][] assignment, int changePenalty) {
+        int[] slots = assignment[0];
+        int[] teachers = assignment[1];
+        int[] rooms = assignment[2];
+        if (slots.length != lessonCount() || teachers.length != lessonCount() || rooms.length != lessonCount()) {
+            throw new IllegalArgumentException("Reference must have one entry per lesson");
+        }
+        return new ProblemSnapshot(this, lessonClass, lessonSubject, classLessonStart, fixed(),
+                new int[][]{slots.clone(), teachers.clone(), rooms.clone()}, changePenalty);
+    }
+
+    /**
+     * Same problem with the given lessons taken out of the search, given as slot, teacher and room
+     * arrays: every lesson whose slot is not {@link GeneticTimetable#UNASSIGNED} becomes a fixed
+     * lesson at that slot, teacher and room, and the remaining lessons are renumbered in their
+     * original order. A reference is kept for the remaining lessons.
+     */
+    public ProblemSnapshot withFixed(int[][] assignment) {
+        int[] slots = assignment[0];
+        int[] teachers = assignment[1];
+        int[] rooms = assignment[2];
+        if (slots.length != lessonCount() || teachers.length != lessonCount() || rooms.length != lessonCount()) {
+            throw new IllegalArgumentException("Fixed assignment must have one entry per lesson");
+        }
+        int fixedCount = 0;
+        for (int slot : slots) {
+            if (slot != GeneticTimetable.UNASSIGNED) fixedCount++;
+        }
+        int free = lessonCount() - fixedCount;
+        int[] newClass = new int[free];
+        int[] newSubject = new int[free];
+        int[] newStart = new int[classCount + 1];
+        int[][] reference = hasReference() ? new int[3][free] : null;
+        int[][] fixed = new int[5][];
+        for (int i = 0; i < 5; i++) {
+            fixed[i] = Arrays.copyOf(fixed()[i], fixedClass.length + fixedCount);
+        }
+        int f = fixedClass.length;
+        int l = 0;
+        for (int c = 0; c < classCount; c++) {
+            newStart[c] = l;
+            for (int lesson = classLessonStart[c]; lesson < classLessonStart[c + 1]; lesson++) {
+                if (slots[lesson] != GeneticTimetable.UNASSIGNED) {
+                    fixed[0][f] = c;
+                    fixed[1][f] = lessonSubject[lesson];
+                    fixed[2][f] = slots[lesson];
+                    fixed[3][f] = teachers[lesson];
+                    fixed[4][f] = rooms[lesson];
+                    f++;
+                    continue;
+                }
+                newClass[l] = c;
+                newSubject[l] = lessonSubject[lesson];
+                if (reference != null) {
+                    reference[0][l] = referenceSlot[lesson];
+                    reference[1][l] = referenceTeacher[lesson];
+                    reference[2][l] = referenceRoom[lesson];
+                }
+                l++;
+            }
+        }
+        newStart[classCount] = l;
+        return new ProblemSnapshot(this, newClass, newSubject, newStart, fixed, reference, changePenalty);
+    }
+
+    private int[][] fixed() {
+        return new int[][]{fixedClass, fixedSubject, fixedSlot, fixedTeacher, fixedRoom};
+    }
+
+    private static <T> Map<Long, Integer> indexOf(List<T> items, Function<T, Long> id) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            index.put(id.apply(items.get(i)), i);
+        }
+        return index;
+    }
+
+    private static int roomTypeCode(String type, Map<String, Integer> roomTypeIndex) {
+        if (type == null) return -1;
+        return roomTypeIndex.computeIfAbsent(type.toLowerCase(Locale.ROOT), k -> roomTypeIndex.size());
+    }
+
+    public int classCount() { return classCount; }
+    public int programCount() { return programIds.length; }
+    public int subjectCount() { return subjectIds.length; }
+    public int teacherCount() { return teacherIds.length; }
+    public int roomCount() { return roomIds.length; }
+    public int slotCount() { return slotIds.length; }
+    public int dayCount() { return dayCount; }
+    public int lessonCount() { return lessonClass.length; }
+
+    public long programId(int program) { return programIds[program]; }
+    public long subjectId(int subject) { return subjectIds[subject]; }
+    public long teacherId(int teacher) { return teacherIds[teacher]; }
+    public long roomId(int room) { return roomIds[room]; }
+    public long slotId(int slot) { return slotIds[slot]; }
+
+    public int classProgram(int clazz) { return classProgram[clazz]; }
+    public int teacherSubject(int teacher) { return teacherSubject[teacher]; }
+    public int teacherMaxHours(int teacher) { return teacherMaxHours[teacher]; }
+    public boolean isTeacherAvailable(int teacher) { return teacherAvailable[teacher]; }
+    public int slotDay(int slot) { return slotDay[slot]; }
+
+    public int requirementCount(int program) { return programSubjects[program].length; }
+    public int requirementSubject(int program, int k) { return programSubjects[program][k]; }
+    public int requirementHours(int program, int k) { return programHours[program][k]; }
+    public int requiredHours(int program, int subject) { return requiredHours[program * subjectIds.length + subject]; }
+
+    public int lessonClass(int lesson) { return lessonClass[lesson]; }
+    public int lessonSubject(int lesson) { return lessonSubject[lesson]; }
+    public int classLessonStart(int clazz) { return classLessonStart[clazz]; }
+    public int classLessonEnd(int clazz) { return classLessonStart[clazz + 1]; }
+
+    public EligibilityIndex eligibility() { return eligibility; }
+
+    public int fixedCount() { return fixedClass.length; }
+    public int fixedClass(int fixed) { return fixedClass[fixed]; }
+    public int fixedSubject(int fixed) { return fixedSubject[fixed]; }
+    public int fixedSlot(int fixed) { return fixedSlot[fixed]; }
+    public int fixedTeacher(int fixed) { return fixedTeacher[fixed]; }
+    public int fixedRoom(int fixed) { return fixedRoom[fixed]; }
+
+    public boolean hasReference() { return referenceSlot != null; }
+    public int referenceCount() { return referenceCount; }
+    public int changePenalty() { return changePenalty; }
+    public int referenceSlot(int lesson) { return referenceSlot == null ? GeneticTimetable.UNASSIGNED : referenceSlot[lesson]; }
+    public int referenceTeacher(int lesson) { return referenceTeacher == null ? GeneticTimetable.UNASSIGNED : referenceTeacher[lesson]; }
+    public int referenceRoom(int lesson) { return referenceRoom == null ? GeneticTimetable.UNASSIGNED : referenceRoom[lesson]; }
+
+    // A lesson without a reference never matches
+    public boolean matchesReference(int lesson, int slot, int teacher, int room) {
+        return referenceSlot != null && referenceSlot[lesson] != GeneticTimetable.UNASSIGNED
+                && referenceSlot[lesson] == slot && referenceTeacher[lesson] == teacher && referenceRoom[lesson] == room;
+    }
+
+    public boolean teachesProgram(int teacher, int program) {
+        return teacherPrograms[teacher * programIds.length + program];
+    }
+
+    // Same rule as the entity check: teacher subject matches and the teacher is linked to the class program
+    public boolean isEligible(int teacher, int clazz, int subject) {
+        return teacherSubject[teacher] == subject && teachesProgram(teacher, classProgram[clazz]);
+    }
+
+    public boolean roomMatches(int room, int subject) {
+        return roomType[room] >= 0 && roomType[room] == subjectRoomType[subject];
+    }
+
+    private static final class Builder {
+        long[] programIds, subjectIds, teacherIds, roomIds, slotIds;
+        int[] classProgram, subjectRoomType, roomType, teacherSubject, teacherMaxHours, slotDay;
+        boolean[] teacherAvailable, teacherPrograms;
+        int dayCount;
+        int[][] programSubjects, programHours;
+        int[] requiredHours, lessonClass, lessonSubject, classLessonStart;
+    }
+}
@@ -0,0 +1,29 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Limits of one solver run: the wall-clock time for the run and an optional seed that makes the
+ * run reproducible. Final polishing happens within the time limit; only the last repair may run
+ * past it.
+ */
+public final class SolverBudget {
+    private final long timeLimitMillis;
+    private final Long seed;
+
+    public SolverBudget(long timeLimitMillis, Long seed) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.seed = seed;
+    }
+
+    public long getTimeLimitMillis() { return timeLimitMillis; }
+    public Long getSeed() { return seed; }
+
+    public long deadlineFrom(long startMillis) {
+        return startMillis + timeLimitMillis;
+    }
+
+    public SplittableRandom newRandom() {
+        return seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+    }
+}
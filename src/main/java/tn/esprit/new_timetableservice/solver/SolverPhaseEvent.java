@@ -0,0 +1,16 @@
+package tn.esprit.new_timetableservice.solver;
+
+import jdk.jfr.*;
+
+/** Flight Recorder event spanning one phase of a run, from loading the school to saving the timetable. */
+@Name("tn.esprit.timetable.SolverPhase")
+@Label("Solver Phase")
+@Category({"Timetable", "Solver"})
+@StackTrace(false)
+final class SolverPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("School Id")
+    long schoolId;
+}
@@ -0,0 +1,182 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Progress of one solver run, written by the solver threads and read by whoever polls it.
+ * Recording a generation is a single compare-and-set, so the solver never waits on readers;
+ * readers only ever see the latest generation. Also carries the cooperative cancel flag: the
+ * solver checks it between generations and stops with the best timetable found so far.
+ * Phases and timed steps are also Flight Recorder events, tagged with the school being solved.
+ */
+public final class SolverProgress {
+    public enum Phase { QUEUED, LOADING, INITIALIZING, OPTIMIZING, POLISHING, SAVING, COMPLETED, CANCELLED, FAILED }
+
+    /** Why the search loop ended, before the final repair and polish. */
+    public enum StopReason { OPTIMAL, MAX_GENERATIONS, TIMEOUT, STAGNATION, CANCELLED }
+
+    /** Timed units of solver work: building a start solution or population, one generation, the offspring one worker builds and scores in a generation, a repair, a local search. */
+    public enum Step { CONSTRUCTION, GENERATION, EVALUATION, REPAIR, LOCAL_SEARCH }
+
+    /** Observer of a run. Called on the solver threads, so implementations must be cheap and thread-safe. */
+    public interface Listener {
+        default void generationRecorded(GenerationStats stats) {
+        }
+
+        default void stepTimed(Step step, long nanos) {
+        }
+    }
+
+    /** Telemetry of one generation; islands report their own population. */
+    public static final class GenerationStats {
+        private final int generation;
+        private final int bestFitness;
+        private final double meanFitness;
+        private final int hardViolations;
+        private final long elapsedMillis;
+
+        GenerationStats(int generation, int bestFitness, double meanFitness, int hardViolations, long elapsedMillis) {
+            this.generation = generation;
+            this.bestFitness = bestFitness;
+            this.meanFitness = meanFitness;
+            this.hardViolations = hardViolations;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getGeneration() { return generation; }
+        public int getBestFitness() { return bestFitness; }
+        public double getMeanFitness() { return meanFitness; }
+        public int getHardViolations() { return hardViolations; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    private final AtomicReference<GenerationStats> latest = new AtomicReference<>();
+    private final AtomicInteger bestFitness = new AtomicInteger(Integer.MIN_VALUE);
+    private volatile long startedAt = System.currentTimeMillis();
+    private volatile Phase phase = Phase.QUEUED;
+    private volatile boolean cancelled;
+    private volatile StopReason stopReason;
+    private volatile Listener listener;
+    private volatile long schoolId;
+    // Guarded by this; the event of the phase in progress
+    private SolverPhaseEvent phaseEvent;
+
+    public Phase getPhase() { return phase; }
+
+    // Each phase is one Flight Recorder event, committed when the next one begins or the run ends
+    public synchronized void setPhase(Phase phase) {
+        if (phaseEvent != null && phase != this.phase) {
+            phaseEvent.end();
+            if (phaseEvent.shouldCommit()) {
+                phaseEvent.schoolId = schoolId;
+                phaseEvent.commit();
+            }
+            phaseEvent = null;
+        }
+        if (phaseEvent == null && running(phase)) {
+            phaseEvent = new SolverPhaseEvent();
+            phaseEvent.phase = phase.name();
+            phaseEvent.begin();
+        }
+        this.phase = phase;
+    }
+
+    private static boolean running(Phase phase) {
+        return phase != Phase.QUEUED && phase != Phase.COMPLETED && phase != Phase.CANCELLED && phase != Phase.FAILED;
+    }
+
+    // Elapsed times are measured from here rather than from submission
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        setPhase(Phase.LOADING);
+    }
+
+    public long getSchoolId() { return schoolId; }
+    public void setSchoolId(long schoolId) { this.schoolId = schoolId; }
+
+    public GenerationStats getLatest() { return latest.get(); }
+
+    public int getGeneration() {
+        GenerationStats stats = latest.get();
+        return stats == null ? 0 : stats.generation;
+    }
+
+    public Integer getBestFitness() {
+        int best = bestFitness.get();
+        return best == Integer.MIN_VALUE ? null : best;
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    // Islands report concurrently: the newest generation wins, and the overall best only moves up
+    public void recordGeneration(int generation, int bestFitness, double meanFitness, int hardViolations) {
+        GenerationStats stats = new GenerationStats(generation, bestFitness, meanFitness, hardViolations, getElapsedMillis());
+        latest.accumulateAndGet(stats, (current, next) -> current == null
+                || next.generation > current.generation
+                || (next.generation == current.generation && next.bestFitness > current.bestFitness) ? next : current);
+        this.bestFitness.accumulateAndGet(bestFitness, Math::max);
+        Listener current = listener;
+        if (current != null) {
+            current.generationRecorded(stats);
+        }
+    }
+
+    // Solvers time their steps unconditionally: with no listener and no recording, the timer is a
+    // short-lived object the JIT can usually drop
+    public StepTimer startStep(Step step) {
+        return new StepTimer(step);
+    }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    // Progress of a sub-run such as a portfolio member: its step timings reach this run's listener,
+    // its generations stay its own
+    public SolverProgress child() {
+        SolverProgress child = new SolverProgress();
+        child.schoolId = schoolId;
+        Listener parent = listener;
+        if (parent != null) {
+            child.listener = new Listener() {
+                @Override
+                public void stepTimed(Step step, long nanos) {
+                    parent.stepTimed(step, nanos);
+                }
+            };
+        }
+        return child;
+    }
+
+    public StopReason getStopReason() { return stopReason; }
+    public void setStopReason(StopReason stopReason) { this.stopReason = stopReason; }
+
+    public void cancel() { cancelled = true; }
+    public boolean isCancelled() { return cancelled; }
+
+    /** A step in progress; {@link #done()} reports it to the listener and, while recording, to Flight Recorder. */
+    public final class StepTimer {
+        private final Step step;
+        private final long startNanos = System.nanoTime();
+        private final SolverStepEvent event = new SolverStepEvent();
+
+        private StepTimer(Step step) {
+            this.step = step;
+            event.begin();
+        }
+
+        public void done() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.step = step.name();
+                event.schoolId = schoolId;
+                event.commit();
+            }
+            Listener current = listener;
+            if (current != null) {
+                current.stepTimed(step, System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package tn.esprit.new_timetableservice.solver;
+
+/** Best timetable of a solver run with the statistics needed to compare solvers. */
+public final class SolverResult {
+    private final String solver;
+    private final GeneticTimetable solution;
+    private final SolverProgress.StopReason stopReason;
+    private final int iterations;
+    private final long elapsedMillis;
+
+    public SolverResult(String solver, GeneticTimetable solution, SolverProgress.StopReason stopReason,
+                        int iterations, long elapsedMillis) {
+        this.solver = solver;
+        this.solution = solution;
+        this.stopReason = stopReason;
+        this.iterations = iterations;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getSolver() { return solver; }
+    public GeneticTimetable getSolution() { return solution; }
+    public SolverProgress.StopReason getStopReason() { return stopReason; }
+    // Generations, constructions or moves, depending on the solver
+    public int getIterations() { return iterations; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public HardSoftScore getScore() { return solution.score(); }
+    public int getFitness() { return solution.fitness(); }
+    public int getHardViolations() { return solution.hardViolations(); }
+}
@@ -0,0 +1,16 @@
+package tn.esprit.new_timetableservice.solver;
+
+import jdk.jfr.*;
+
+/** Flight Recorder event for one timed solver step, such as a repair pass or a fitness evaluation. */
+@Name("tn.esprit.timetable.SolverStep")
+@Label("Solver Step")
+@Category({"Timetable", "Solver"})
+@StackTrace(false)
+final class SolverStepEvent extends Event {
+    @Label("Step")
+    String step;
+
+    @Label("School Id")
+    long schoolId;
+}
@@ -0,0 +1,12 @@
+package tn.esprit.new_timetableservice.solver;
+
+/**
+ * A search strategy over a {@link ProblemSnapshot}. Implementations are Spring beans registered
+ * under the name requests and configuration select them by ("genetic", "annealing", "greedy", "portfolio").
+ * They must not keep state between calls, report through the given progress and stop early when
+ * it is cancelled.
+ */
+public interface TimetableSolver {
+
+    SolverResult solve(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress);
+}
@@ -0,0 +1,128 @@
+package tn.esprit.new_timetableservice.solver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Per-worker scratch buffers and the placement moves every solver shares: random conflict-free
+ * placement, single-lesson mutation and repair. Nothing here allocates per call except repair,
+ * which returns a new chromosome. One instance per worker thread.
+ */
+public final class Workspace {
+    private final ProblemSnapshot snapshot;
+    private final int[] eligibleTeachers;
+    private final int[] slotOrder;
+    private DSaturConstructor constructor;
+
+    public Workspace(ProblemSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.eligibleTeachers = new int[snapshot.teacherCount()];
+        this.slotOrder = new int[snapshot.slotCount()];
+    }
+
+    public DSaturConstructor constructor() {
+        if (constructor == null) {
+            constructor = new DSaturConstructor(snapshot);
+        }
+        return constructor;
+    }
+
+    // Places the lesson at a random conflict-free slot; leaves the timetable untouched and returns false otherwise
+    public boolean placeRandomly(GeneticTimetable timetable, int lesson, SplittableRandom random) {
+        int clazz = snapshot.lessonClass(lesson);
+        int subject = snapshot.lessonSubject(lesson);
+        int teacherCount = 0;
+        for (int t : snapshot.eligibility().teachers(snapshot.classProgram(clazz), subject)) {
+            if (isTeacherAvailable(t, timetable)) {
+                eligibleTeachers[teacherCount++] = t;
+            }
+        }
+        // Structural gaps are reported once per solve by the caller
+        if (teacherCount == 0) {
+            return false;
+        }
+
+        int[] eligibleClassrooms = snapshot.eligibility().rooms(subject);
+        int classroomCount = eligibleClassrooms.length;
+        if (classroomCount == 0) {
+            return false;
+        }
+
+        // Reset to identity before shuffling so the order only depends on this call's random stream
+        int[] slots = slotOrder;
+        for (int i = 0; i < slots.length; i++) slots[i] = i;
+        for (int i = slots.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = slots[i];
+            slots[i] = slots[j];
+            slots[j] = tmp;
+        }
+        for (int slot : slots) {
+            if (!timetable.isClassBusy(clazz, slot)) {
+                int teacher = eligibleTeachers[random.nextInt(teacherCount)];
+                int classroom = eligibleClassrooms[random.nextInt(classroomCount)];
+                if (!timetable.isTeacherBusy(teacher, slot) && !timetable.isRoomBusy(classroom, slot)) {
+                    timetable.assign(lesson, slot, teacher, classroom);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isTeacherAvailable(int teacher, GeneticTimetable timetable) {
+        if (timetable.teacherHours(teacher) >= snapshot.teacherMaxHours(teacher)) {
+            return false;
+        }
+        return snapshot.isTeacherAvailable(teacher);
+    }
+
+    // Re-places one random lesson; it keeps its old placement when no conflict-free one exists
+    public void mutate(GeneticTimetable timetable, SplittableRandom random) {
+        if (timetable.size() == 0) return;
+        int lesson = random.nextInt(timetable.size());
+        int slot = timetable.slot(lesson);
+        int teacher = timetable.teacher(lesson);
+        int room = timetable.room(lesson);
+        timetable.unassign(lesson);
+        if (!placeRandomly(timetable, lesson, random)) {
+            timetable.assign(lesson, slot, teacher, room);
+        }
+    }
+
+    // Keeps every lesson that breaks no hard rule given the ones kept before it, then re-places the rest randomly
+    public GeneticTimetable repair(GeneticTimetable timetable, SplittableRandom random) {
+        GeneticTimetable repaired = new GeneticTimetable(snapshot);
+
+        // Only conflict-free lessons are copied, so the occupancy of repaired is the set of kept lessons
+        for (int l = 0; l < timetable.size(); l++) {
+            if (!timetable.isAssigned(l)) continue;
+            int clazz = snapshot.lessonClass(l);
+            int slot = timetable.slot(l);
+            int teacher = timetable.teacher(l);
+            int room = timetable.room(l);
+            if (!repaired.isTeacherBusy(teacher, slot) &&
+                    !repaired.isRoomBusy(room, slot) &&
+                    !repaired.isClassBusy(clazz, slot) &&
+                    snapshot.roomMatches(room, snapshot.lessonSubject(l)) &&
+                    repaired.teacherHours(teacher) < snapshot.teacherMaxHours(teacher) &&
+                    snapshot.isTeacherAvailable(teacher)) {
+                repaired.assign(l, slot, teacher, room);
+            }
+        }
+
+        for (int l = 0; l < repaired.size(); l++) {
+            if (!repaired.isAssigned(l)) {
+                placeRandomly(repaired, l, random);
+            }
+        }
+        return repaired;
+    }
+
+    // The same, reported to the run as a REPAIR step
+    public GeneticTimetable repair(GeneticTimetable timetable, SplittableRandom random, SolverProgress progress) {
+        SolverProgress.StepTimer repairStep = progress.startStep(SolverProgress.Step.REPAIR);
+        GeneticTimetable repaired = repair(timetable, random);
+        repairStep.done();
+        return repaired;
+    }
+}
@@ -0,0 +1,79 @@
+package tn.esprit.new_timetableservice.synthetic;
+
+import tn.esprit.new_timetableservice.entities.*;
+import tn.esprit.new_timetableservice.entities.Class;
+import tn.esprit.new_timetableservice.solver.ProblemSnapshot;
+
+import java.util.*;
+
+/**
+ * A generated school as unsaved entities. Ids are provisional and unique within the school until
+ * it is written, when they are replaced by database ids. Classes are only kept in memory: the
+ * timetable generator creates them from the program class counts.
+ */
+public class SyntheticSchool {
+    final School school = new School();
+    final List<Level> levels = new ArrayList<>();
+    final List<Specialty> specialties = new ArrayList<>();
+    final List<Subject> subjects = new ArrayList<>();
+    final List<Program> programs = new ArrayList<>();
+    final List<ProgramSubject> programSubjects = new ArrayList<>();
+    final List<Class> classes = new ArrayList<>();
+    final List<TimeSlot> timeSlots = new ArrayList<>();
+    final List<Classroom> classrooms = new ArrayList<>();
+    final List<Teacher> teachers = new ArrayList<>();
+    final List<TeacherAvailability> availabilities = new ArrayList<>();
+
+    public School getSchool() { return school; }
+    public List<Level> getLevels() { return levels; }
+    public List<Specialty> getSpecialties() { return specialties; }
+    public List<Subject> getSubjects() { return subjects; }
+    public List<Program> getPrograms() { return programs; }
+    public List<ProgramSubject> getProgramSubjects() { return programSubjects; }
+    public List<Class> getClasses() { return classes; }
+    public List<TimeSlot> getTimeSlots() { return timeSlots; }
+    public List<Classroom> getClassrooms() { return classrooms; }
+    public List<Teacher> getTeachers() { return teachers; }
+    public List<TeacherAvailability> getAvailabilities() { return availabilities; }
+
+    // The programClassCounts of a generation request for this school
+    public Map<Long, Integer> programClassCounts() {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        for (Class clazz : classes) {
+            counts.merge(clazz.getProgram().getId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public Map<String, Integer> recordCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("level", levels.size());
+        counts.put("specialty", specialties.size());
+        counts.put("subject", subjects.size());
+        counts.put("program", programs.size());
+        counts.put("program_subject", programSubjects.size());
+        counts.put("time_slot", timeSlots.size());
+        counts.put("classroom", classrooms.size());
+        counts.put("teacher", teachers.size());
+        counts.put("teacher_program", teachers.stream().mapToInt(t -> t.getPrograms().size()).sum());
+        counts.put("teacher_availability", availabilities.size());
+        return counts;
+    }
+
+    // Solver view without a database round trip, as the generation service would build it
+    public ProblemSnapshot toSnapshot() {
+        Map<Long, List<ProgramSubject>> requirements = new HashMap<>();
+        for (Program program : programs) {
+            requirements.put(program.getId(), new ArrayList<>());
+        }
+        for (ProgramSubject requirement : programSubjects) {
+            requirements.get(requirement.getProgram().getId()).add(requirement);
+        }
+        Map<Long, List<TeacherAvailability>> teacherAvailabilities = new HashMap<>();
+        for (TeacherAvailability availability : availabilities) {
+            teacherAvailabilities.computeIfAbsent(availability.getTeacher().getId(), k -> new ArrayList<>()).add(availability);
+        }
+        return ProblemSnapshot.from(classes, programs, subjects, teachers, classrooms, timeSlots,
+                requirements, teacherAvailabilities);
+    }
+}
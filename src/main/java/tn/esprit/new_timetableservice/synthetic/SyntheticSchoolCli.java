@@ -0,0 +1,37 @@
+package tn.esprit.new_timetableservice.synthetic;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.new_timetableservice.NewTimetableServiceApplication;
+import tn.esprit.new_timetableservice.dto.SyntheticSchoolDTO;
+import tn.esprit.new_timetableservice.services.SyntheticSchoolService;
+
+/**
+ * Writes one synthetic school into the configured database and prints the generation request
+ * inputs. Spec fields are read from synthetic.* properties, for example:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.main-class=tn.esprit.new_timetableservice.synthetic.SyntheticSchoolCli \
+ *     -Dspring-boot.run.arguments="--synthetic.programs=40 --synthetic.classes-per-program=10 --synthetic.tightness=0.9"
+ * </pre>
+ */
+public class SyntheticSchoolCli {
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(NewTimetableServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("synthetic")
+                .properties("eureka.client.enabled=false")
+                .run(args)) {
+            SyntheticSchoolSpec spec = Binder.get(context.getEnvironment())
+                    .bind("synthetic", SyntheticSchoolSpec.class)
+                    .orElseGet(SyntheticSchoolSpec::new);
+            SyntheticSchoolDTO school = context.getBean(SyntheticSchoolService.class).generate(spec);
+            System.out.println("schoolId=" + school.getSchoolId());
+            System.out.println("name=" + school.getName());
+            System.out.println("programClassCounts=" + school.getProgramClassCounts());
+            System.out.println("records=" + school.getRecordCounts());
+        }
+    }
+}
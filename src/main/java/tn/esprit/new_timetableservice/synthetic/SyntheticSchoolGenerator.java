@@ -0,0 +1,202 @@
+package tn.esprit.new_timetableservice.synthetic;
+
+import tn.esprit.new_timetableservice.entities.*;
+import tn.esprit.new_timetableservice.entities.Class;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Builds a school of the requested size whose resources are sized from the required hours, so
+ * that tightness is the share of capacity the timetable needs: the weekly hours of every program
+ * are set to tightness times the slots of a week, and teachers per subject and rooms per room type
+ * are added until their capacity is the required hours divided by tightness. Every fourth subject
+ * needs a lab. The same spec and seed always give the same school.
+ */
+public final class SyntheticSchoolGenerator {
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    private static final int MAX_HOURS_PER_SUBJECT = 4;
+
+    private SyntheticSchoolGenerator() {
+    }
+
+    public static SyntheticSchool generate(SyntheticSchoolSpec spec) {
+        validate(spec);
+        Random random = new Random(spec.getSeed());
+        SyntheticSchool result = new SyntheticSchool();
+        long[] nextId = {1};
+        String tag = spec.getName() != null && !spec.getName().isBlank()
+                ? spec.getName() : "Synthetic " + spec.getSeed();
+
+        School school = result.school;
+        school.setId(nextId[0]++);
+        school.setName(tag);
+        school.setAcademicYear("Synthetic");
+        school.setRegion("Synthetic");
+        school.setType("Synthetic");
+
+        Level level = new Level();
+        level.setId(nextId[0]++);
+        level.setName(tag + " Level");
+        level.setSupportsSpecialty(true);
+        result.levels.add(level);
+
+        int slotCount = spec.getDays() * spec.getSlotsPerDay();
+        for (int d = 0; d < spec.getDays(); d++) {
+            for (int h = 0; h < spec.getSlotsPerDay(); h++) {
+                TimeSlot slot = new TimeSlot();
+                slot.setId(nextId[0]++);
+                slot.setSchool(school);
+                slot.setDay(DAYS[d]);
+                slot.setStartTime(LocalTime.of(8, 0).plusHours(h));
+                slot.setEndTime(LocalTime.of(9, 0).plusHours(h));
+                result.timeSlots.add(slot);
+            }
+        }
+
+        // Two more subjects than a program takes, so programs share most but not all of their subjects
+        int subjectCount = spec.getSubjectsPerProgram() + 2;
+        for (int s = 0; s < subjectCount; s++) {
+            Subject subject = new Subject();
+            subject.setId(nextId[0]++);
+            subject.setName(tag + " Subject " + (s + 1));
+            subject.setRoomType(s % 4 == 3 ? "Lab" : "Standard");
+            result.subjects.add(subject);
+        }
+
+        int weeklyHours = Math.max(spec.getSubjectsPerProgram(), (int) Math.round(spec.getTightness() * slotCount));
+        int[] requiredBySubject = new int[subjectCount];
+        for (int p = 0; p < spec.getPrograms(); p++) {
+            Specialty specialty = new Specialty();
+            specialty.setId(nextId[0]++);
+            specialty.setLevel(level);
+            specialty.setName(tag + " Specialty " + (p + 1));
+            result.specialties.add(specialty);
+
+            Program program = new Program();
+            program.setId(nextId[0]++);
+            program.setLevel(level);
+            program.setSpecialty(specialty);
+            program.setName(tag + " Program " + (p + 1));
+            result.programs.add(program);
+
+            int[] hours = spreadHours(weeklyHours, spec.getSubjectsPerProgram(), random);
+            for (int k = 0; k < hours.length; k++) {
+                int s = (p + k) % subjectCount;
+                ProgramSubject requirement = new ProgramSubject();
+                requirement.setId(nextId[0]++);
+                requirement.setProgram(program);
+                requirement.setSubject(result.subjects.get(s));
+                requirement.setHoursPerWeek(hours[k]);
+                requirement.setIsCore(k < hours.length / 2);
+                result.programSubjects.add(requirement);
+                requiredBySubject[s] += hours[k] * spec.getClassesPerProgram();
+            }
+
+            for (int c = 1; c <= spec.getClassesPerProgram(); c++) {
+                Class clazz = new Class();
+                clazz.setSchool(school);
+                clazz.setProgram(program);
+                clazz.setName(program.getName() + " Class " + c);
+                clazz.setStudentCount(35);
+                result.classes.add(clazz);
+            }
+        }
+
+        int labHours = 0;
+        int standardHours = 0;
+        for (int s = 0; s < subjectCount; s++) {
+            Subject subject = result.subjects.get(s);
+            if (requiredBySubject[s] == 0) continue;
+            if ("Lab".equals(subject.getRoomType())) {
+                labHours += requiredBySubject[s];
+            } else {
+                standardHours += requiredBySubject[s];
+            }
+            List<Program> teaching = new ArrayList<>();
+            for (ProgramSubject requirement : result.programSubjects) {
+                if (requirement.getSubject() == subject) teaching.add(requirement.getProgram());
+            }
+            int teacherCount = capacityUnits(requiredBySubject[s], spec.getTeacherMaxHours(), spec.getTightness());
+            for (int i = 0; i < teacherCount; i++) {
+                Teacher teacher = new Teacher();
+                teacher.setId(nextId[0]++);
+                teacher.setSchool(school);
+                teacher.setName(subject.getName() + " Teacher " + (i + 1));
+                teacher.setSubject(subject);
+                teacher.setMaxHoursPerWeek(spec.getTeacherMaxHours());
+                teacher.getPrograms().addAll(teaching);
+                result.teachers.add(teacher);
+            }
+        }
+
+        addClassrooms(result, "Room", "standard", capacityUnits(standardHours, slotCount, spec.getTightness()), nextId, random);
+        addClassrooms(result, "Lab", "lab", capacityUnits(labHours, slotCount, spec.getTightness()), nextId, random);
+
+        for (Teacher teacher : result.teachers) {
+            for (TimeSlot slot : result.timeSlots) {
+                TeacherAvailability availability = new TeacherAvailability();
+                availability.setId(nextId[0]++);
+                availability.setTeacher(teacher);
+                availability.setTimeSlot(slot);
+                availability.setIsAvailable(random.nextDouble() < spec.getAvailability());
+                result.availabilities.add(availability);
+            }
+        }
+        return result;
+    }
+
+    private static void validate(SyntheticSchoolSpec spec) {
+        if (spec.getPrograms() < 1 || spec.getClassesPerProgram() < 1 || spec.getSubjectsPerProgram() < 1) {
+            throw new IllegalArgumentException("programs, classesPerProgram and subjectsPerProgram must be at least 1");
+        }
+        if (spec.getDays() < 1 || spec.getDays() > DAYS.length || spec.getSlotsPerDay() < 1 || spec.getSlotsPerDay() > 15) {
+            throw new IllegalArgumentException("days must be 1-" + DAYS.length + " and slotsPerDay 1-15");
+        }
+        if (spec.getTightness() <= 0 || spec.getTightness() > 1) {
+            throw new IllegalArgumentException("tightness must be in (0, 1]");
+        }
+        if (spec.getTeacherMaxHours() < 1 || spec.getAvailability() < 0 || spec.getAvailability() > 1) {
+            throw new IllegalArgumentException("teacherMaxHours must be positive and availability in [0, 1]");
+        }
+        // Every subject takes at least one hour a week, so a class can have no more subjects than slots
+        if (spec.getSubjectsPerProgram() > spec.getDays() * spec.getSlotsPerDay()) {
+            throw new IllegalArgumentException("subjectsPerProgram must not exceed days * slotsPerDay");
+        }
+        if (spec.getSubjectsPerProgram() * MAX_HOURS_PER_SUBJECT < Math.round(spec.getTightness() * spec.getDays() * spec.getSlotsPerDay())) {
+            throw new IllegalArgumentException("Too few subjects per program to fill the week at this tightness");
+        }
+    }
+
+    // At least one hour per subject, the rest handed out at random up to the per-subject maximum
+    private static int[] spreadHours(int total, int subjects, Random random) {
+        int[] hours = new int[subjects];
+        Arrays.fill(hours, 1);
+        int left = total - subjects;
+        while (left > 0) {
+            int k = random.nextInt(subjects);
+            if (hours[k] < MAX_HOURS_PER_SUBJECT) {
+                hours[k]++;
+                left--;
+            }
+        }
+        return hours;
+    }
+
+    private static int capacityUnits(int requiredHours, int hoursPerUnit, double tightness) {
+        if (requiredHours == 0) return 0;
+        return (int) Math.ceil(requiredHours / (hoursPerUnit * tightness));
+    }
+
+    private static void addClassrooms(SyntheticSchool result, String name, String type, int count, long[] nextId, Random random) {
+        for (int i = 1; i <= count; i++) {
+            Classroom classroom = new Classroom();
+            classroom.setId(nextId[0]++);
+            classroom.setSchool(result.school);
+            classroom.setName(result.school.getName() + " " + name + " " + i);
+            classroom.setCapacity(30 + random.nextInt(16));
+            classroom.setType(type);
+            result.classrooms.add(classroom);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package tn.esprit.new_timetableservice.synthetic;
+
+// Parameters of a generated school; bound from the admin request body or from synthetic.* properties
+public class SyntheticSchoolSpec {
+    private String name;
+    private int programs = 10;
+    private int classesPerProgram = 5;
+    private int subjectsPerProgram = 10;
+    private int days = 5;
+    private int slotsPerDay = 6;
+    // Required hours over capacity, for class slots, teacher hours and room slots alike; 1.0 leaves no slack
+    private double tightness = 0.8;
+    private int teacherMaxHours = 18;
+    // Share of teacher slots marked available
+    private double availability = 1.0;
+    private long seed = 42;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getPrograms() { return programs; }
+    public void setPrograms(int programs) { this.programs = programs; }
+    public int getClassesPerProgram() { return classesPerProgram; }
+    public void setClassesPerProgram(int classesPerProgram) { this.classesPerProgram = classesPerProgram; }
+    public int getSubjectsPerProgram() { return subjectsPerProgram; }
+    public void setSubjectsPerProgram(int subjectsPerProgram) { this.subjectsPerProgram = subjectsPerProgram; }
+    public int getDays() { return days; }
+    public void setDays(int days) { this.days = days; }
+    public int getSlotsPerDay() { return slotsPerDay; }
+    public void setSlotsPerDay(int slotsPerDay) { this.slotsPerDay = slotsPerDay; }
+    public double getTightness() { return tightness; }
+    public void setTightness(double tightness) { this.tightness = tightness; }
+    public int getTeacherMaxHours() { return teacherMaxHours; }
+    public void setTeacherMaxHours(int teacherMaxHours) { this.teacherMaxHours = teacherMaxHours; }
+    public double getAvailability() { return availability; }
+    public void setAvailability(double availability) { this.availability = availability; }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+}
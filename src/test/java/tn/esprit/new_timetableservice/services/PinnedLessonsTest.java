@@ -0,0 +1,178 @@
+package tn.esprit.new_timetableservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tn.esprit.new_timetableservice.dto.PinnedLessonDTO;
+import tn.esprit.new_timetableservice.entities.Class;
+import tn.esprit.new_timetableservice.entities.ProgramSubject;
+import tn.esprit.new_timetableservice.entities.Teacher;
+import tn.esprit.new_timetableservice.solver.GeneticTimetable;
+import tn.esprit.new_timetableservice.solver.ProblemSnapshot;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchool;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolGenerator;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolSpec;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pin validation in TimetableService.pinLessons
+class PinnedLessonsTest {
+
+    private SyntheticSchool school;
+    private ProblemSnapshot snapshot;
+    private List<Class> classes;
+    private ProgramSubject requirement;
+    private long programId;
+    private long subjectId;
+
+    @BeforeEach
+    void setUp() {
+        SyntheticSchoolSpec spec = new SyntheticSchoolSpec();
+        spec.setPrograms(2);
+        spec.setClassesPerProgram(2);
+        spec.setSubjectsPerProgram(5);
+        spec.setDays(5);
+        spec.setSlotsPerDay(4);
+        spec.setTightness(0.5);
+        school = SyntheticSchoolGenerator.generate(spec);
+        snapshot = school.toSnapshot();
+        classes = school.getClasses();
+        requirement = school.getProgramSubjects().get(0);
+        programId = requirement.getProgram().getId();
+        subjectId = requirement.getSubject().getId();
+    }
+
+    @Test
+    void pinsTheNextFreeLessonOfTheClassAndSubject() {
+        Teacher teacher = eligibleTeacher();
+        long room = suitableRoom();
+        PinnedLessonDTO explicit = pin(2, slot(0));
+        explicit.setTeacherId(teacher.getId());
+        explicit.setClassroomId(room);
+        PinnedLessonDTO picked = pin(2, slot(1));
+
+        int[][] pinned = TimetableService.pinLessons(snapshot, classes, List.of(explicit, picked));
+
+        int clazz = classes.indexOf(classOf(2));
+        int first = firstLesson(clazz);
+        assertEquals(0, pinned[0][first]);
+        assertEquals(teacher.getId(), snapshot.teacherId(pinned[1][first]));
+        assertEquals(room, snapshot.roomId(pinned[2][first]));
+        assertEquals(1, pinned[0][first + 1]);
+        assertTrue(snapshot.isEligible(pinned[1][first + 1], clazz, snapshot.lessonSubject(first + 1)));
+        assertTrue(snapshot.roomMatches(pinned[2][first + 1], snapshot.lessonSubject(first + 1)));
+        int placed = 0;
+        for (int slot : pinned[0]) {
+            if (slot != GeneticTimetable.UNASSIGNED) placed++;
+        }
+        assertEquals(2, placed);
+
+        ProblemSnapshot fixed = snapshot.withFixed(pinned);
+        assertEquals(2, fixed.fixedCount());
+        assertEquals(snapshot.lessonCount() - 2, fixed.lessonCount());
+    }
+
+    @Test
+    void rejectsUnknownClassSubjectAndSlot() {
+        assertRejected(pin(3, slot(0)));
+        assertRejected(pin(0, slot(0)));
+        PinnedLessonDTO unknownSubject = pin(1, slot(0));
+        unknownSubject.setSubjectId(-1L);
+        assertRejected(unknownSubject);
+        assertRejected(pin(1, -1L));
+    }
+
+    @Test
+    void rejectsMorePinsThanRequiredHours() {
+        PinnedLessonDTO[] pins = new PinnedLessonDTO[requirement.getHoursPerWeek() + 1];
+        for (int i = 0; i < pins.length; i++) {
+            pins[i] = pin(1, slot(i));
+        }
+        assertRejected(pins);
+    }
+
+    @Test
+    void rejectsTwoPinsOfAClassInOneSlot() {
+        assertRejected(pin(1, slot(0)), pin(1, slot(0)));
+    }
+
+    @Test
+    void rejectsIneligibleTeacherAndUnsuitableRoom() {
+        PinnedLessonDTO wrongTeacher = pin(1, slot(0));
+        wrongTeacher.setTeacherId(school.getTeachers().stream()
+                .filter(t -> !t.getSubject().getId().equals(subjectId))
+                .findFirst().orElseThrow().getId());
+        assertRejected(wrongTeacher);
+
+        PinnedLessonDTO wrongRoom = pin(1, slot(0));
+        String roomType = requirement.getSubject().getRoomType();
+        wrongRoom.setClassroomId(school.getClassrooms().stream()
+                .filter(r -> !r.getType().equalsIgnoreCase(roomType))
+                .findFirst().orElseThrow().getId());
+        assertRejected(wrongRoom);
+    }
+
+    @Test
+    void rejectsAnUnavailableTeacher() {
+        Teacher teacher = eligibleTeacher();
+        school.getAvailabilities().stream()
+                .filter(a -> a.getTeacher() == teacher)
+                .forEach(a -> a.setIsAvailable(false));
+        snapshot = school.toSnapshot();
+        PinnedLessonDTO unavailable = pin(1, slot(0));
+        unavailable.setTeacherId(teacher.getId());
+        assertRejected(unavailable);
+    }
+
+    @Test
+    void rejectsATeacherPinnedTwiceInOneSlot() {
+        long teacher = eligibleTeacher().getId();
+        PinnedLessonDTO first = pin(1, slot(0));
+        first.setTeacherId(teacher);
+        PinnedLessonDTO second = pin(2, slot(0));
+        second.setTeacherId(teacher);
+        assertRejected(first, second);
+    }
+
+    private void assertRejected(PinnedLessonDTO... pins) {
+        assertThrows(IllegalArgumentException.class, () -> TimetableService.pinLessons(snapshot, classes, List.of(pins)));
+    }
+
+    private PinnedLessonDTO pin(int classNumber, long timeSlotId) {
+        PinnedLessonDTO pin = new PinnedLessonDTO();
+        pin.setProgramId(programId);
+        pin.setClassNumber(classNumber);
+        pin.setSubjectId(subjectId);
+        pin.setTimeSlotId(timeSlotId);
+        return pin;
+    }
+
+    private long slot(int index) {
+        return school.getTimeSlots().get(index).getId();
+    }
+
+    private Class classOf(int classNumber) {
+        return classes.stream().filter(c -> c.getProgram().getId() == programId).skip(classNumber - 1).findFirst().orElseThrow();
+    }
+
+    private int firstLesson(int clazz) {
+        for (int l = snapshot.classLessonStart(clazz); l < snapshot.classLessonEnd(clazz); l++) {
+            if (snapshot.subjectId(snapshot.lessonSubject(l)) == subjectId) return l;
+        }
+        return fail("No lesson of subject " + subjectId);
+    }
+
+    private Teacher eligibleTeacher() {
+        return school.getTeachers().stream()
+                .filter(t -> t.getSubject().getId().equals(subjectId) && t.getPrograms().contains(requirement.getProgram()))
+                .findFirst().orElseThrow();
+    }
+
+    private long suitableRoom() {
+        String roomType = requirement.getSubject().getRoomType();
+        return school.getClassrooms().stream()
+                .filter(r -> r.getType().equalsIgnoreCase(roomType))
+                .findFirst().orElseThrow().getId();
+    }
+}
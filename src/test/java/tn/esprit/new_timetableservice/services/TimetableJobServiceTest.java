@@ -0,0 +1,237 @@
+package tn.esprit.new_timetableservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.new_timetableservice.dto.GenerateTimetableRequestDTO;
+import tn.esprit.new_timetableservice.dto.TimetableDTO;
+import tn.esprit.new_timetableservice.dto.TimetableJobDTO;
+import tn.esprit.new_timetableservice.solver.SolverProgress;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+class TimetableJobServiceTest {
+
+    private AnnotationConfigApplicationContext context;
+    private TimetableService timetableService;
+    private TimetableJobService jobService;
+
+    // One worker, so a second job waits in the queue while the first runs
+    @BeforeEach
+    void setUp() {
+        timetableService = mock(TimetableService.class);
+        context = new AnnotationConfigApplicationContext();
+        // Registered as is, so the mock's own @Autowired fields are left alone
+        context.getBeanFactory().registerSingleton("timetableService", timetableService);
+        context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        context.registerBean("timetableJobExecutor", ThreadPoolTaskExecutor.class, () -> {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.setQueueCapacity(5);
+            return executor;
+        });
+        context.registerBean("timetableProgressScheduler", ThreadPoolTaskScheduler.class, ThreadPoolTaskScheduler::new);
+        context.register(TimetableJobService.class);
+        context.refresh();
+        jobService = context.getBean(TimetableJobService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void completedJobReportsItsTimetable() {
+        when(timetableService.generateTimetable(any(), any())).thenAnswer(invocation -> {
+            SolverProgress progress = invocation.getArgument(1);
+            progress.start();
+            progress.recordGeneration(7, -1000, -2000, 1);
+            progress.setStopReason(SolverProgress.StopReason.MAX_GENERATIONS);
+            return timetable(42L);
+        });
+
+        TimetableJobDTO submitted = jobService.submit(request());
+        TimetableJobDTO finished = awaitJob(submitted.getJobId(), job -> job.getFinishedAt() != null);
+
+        assertEquals("COMPLETED", finished.getPhase());
+        assertEquals(42L, finished.getTimetableId());
+        assertEquals(7, finished.getGeneration());
+        assertEquals("MAX_GENERATIONS", finished.getStopReason());
+        assertNull(finished.getError());
+    }
+
+    @Test
+    void cancellingARunningJobStopsItWithoutATimetable() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        // Like the solver: runs until cancelled, and a cancelled run saves nothing
+        when(timetableService.generateTimetable(any(), any())).thenAnswer(invocation -> {
+            SolverProgress progress = invocation.getArgument(1);
+            progress.start();
+            running.countDown();
+            while (!progress.isCancelled()) {
+                Thread.sleep(5);
+            }
+            progress.setStopReason(SolverProgress.StopReason.CANCELLED);
+            return null;
+        });
+
+        TimetableJobDTO submitted = jobService.submit(request());
+        await(running);
+        assertEquals("LOADING", jobService.getJob(submitted.getJobId()).orElseThrow().getPhase());
+        jobService.cancel(submitted.getJobId());
+        TimetableJobDTO finished = awaitJob(submitted.getJobId(), job -> job.getFinishedAt() != null);
+
+        assertEquals("CANCELLED", finished.getPhase());
+        assertNull(finished.getTimetableId());
+        assertEquals("CANCELLED", finished.getStopReason());
+    }
+
+    @Test
+    void cancelDuringSavingStillCompletesWithTheSavedTimetable() throws InterruptedException {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(timetableService.generateTimetable(any(), any())).thenAnswer(invocation -> {
+            SolverProgress progress = invocation.getArgument(1);
+            progress.start();
+            progress.setStopReason(SolverProgress.StopReason.MAX_GENERATIONS);
+            progress.setPhase(SolverProgress.Phase.SAVING);
+            saving.countDown();
+            await(release);
+            return timetable(42L);
+        });
+
+        TimetableJobDTO submitted = jobService.submit(request());
+        await(saving);
+        jobService.cancel(submitted.getJobId());
+        release.countDown();
+        TimetableJobDTO finished = awaitJob(submitted.getJobId(), job -> job.getFinishedAt() != null);
+
+        assertEquals("COMPLETED", finished.getPhase());
+        assertEquals(42L, finished.getTimetableId());
+    }
+
+    @Test
+    void cancellingAQueuedJobDropsItBeforeItRuns() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GenerateTimetableRequestDTO first = request();
+        GenerateTimetableRequestDTO second = request();
+        when(timetableService.generateTimetable(same(first), any())).thenAnswer(invocation -> {
+            running.countDown();
+            await(release);
+            return timetable(1L);
+        });
+
+        TimetableJobDTO blocking = jobService.submit(first);
+        await(running);
+        TimetableJobDTO queued = jobService.submit(second);
+        assertEquals("QUEUED", queued.getPhase());
+
+        TimetableJobDTO cancelled = jobService.cancel(queued.getJobId()).orElseThrow();
+        assertEquals("CANCELLED", cancelled.getPhase());
+        assertNotNull(cancelled.getFinishedAt());
+
+        release.countDown();
+        awaitJob(blocking.getJobId(), job -> job.getFinishedAt() != null);
+        verify(timetableService, never()).generateTimetable(same(second), any());
+    }
+
+    @Test
+    void failedJobReportsTheError() {
+        when(timetableService.generateTimetable(any(), any())).thenThrow(new IllegalArgumentException("School not found: 1"));
+
+        TimetableJobDTO submitted = jobService.submit(request());
+        TimetableJobDTO finished = awaitJob(submitted.getJobId(), job -> job.getFinishedAt() != null);
+
+        assertEquals("FAILED", finished.getPhase());
+        assertEquals("School not found: 1", finished.getError());
+        assertNull(finished.getTimetableId());
+    }
+
+    // Stands in for open-in-view: an EntityManager bound to the request thread must not reach the solve
+    @Test
+    void synchronousGenerationRunsOffTheRequestThread() {
+        Object entityManagerFactory = new Object();
+        AtomicReference<Thread> solvingThread = new AtomicReference<>();
+        AtomicReference<Map<Object, Object>> resources = new AtomicReference<>();
+        when(timetableService.generateTimetable(any(), any())).thenAnswer(invocation -> {
+            solvingThread.set(Thread.currentThread());
+            resources.set(TransactionSynchronizationManager.getResourceMap());
+            return timetable(42L);
+        });
+
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new Object());
+        try {
+            assertEquals(42L, jobService.generate(request()).getId());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        }
+
+        assertNotSame(Thread.currentThread(), solvingThread.get());
+        assertTrue(resources.get().isEmpty());
+    }
+
+    @Test
+    void synchronousGenerationRethrowsRejectedRequests() {
+        when(timetableService.generateTimetable(any(), any())).thenThrow(new IllegalArgumentException("School not found: 1"));
+
+        assertThrows(IllegalArgumentException.class, () -> jobService.generate(request()));
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        assertTrue(jobService.getJob("missing").isEmpty());
+        assertTrue(jobService.cancel("missing").isEmpty());
+        assertTrue(jobService.subscribe("missing").isEmpty());
+    }
+
+    private TimetableJobDTO awaitJob(String jobId, Predicate<TimetableJobDTO> condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            TimetableJobDTO job = jobService.getJob(jobId).orElseThrow();
+            if (condition.test(job)) return job;
+            sleep();
+        }
+        return fail("Timetable job " + jobId + " did not reach the expected state");
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static GenerateTimetableRequestDTO request() {
+        GenerateTimetableRequestDTO request = new GenerateTimetableRequestDTO();
+        request.setSchoolId(1L);
+        return request;
+    }
+
+    private static TimetableDTO timetable(Long id) {
+        TimetableDTO timetable = new TimetableDTO();
+        timetable.setId(id);
+        return timetable;
+    }
+}
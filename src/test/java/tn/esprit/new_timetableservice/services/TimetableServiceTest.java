@@ -0,0 +1,102 @@
+package tn.esprit.new_timetableservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.new_timetableservice.dto.GenerateTimetableRequestDTO;
+import tn.esprit.new_timetableservice.entities.Program;
+import tn.esprit.new_timetableservice.repositories.*;
+import tn.esprit.new_timetableservice.solver.GeneticTimetable;
+import tn.esprit.new_timetableservice.solver.ProblemSnapshot;
+import tn.esprit.new_timetableservice.solver.SolverBudget;
+import tn.esprit.new_timetableservice.solver.SolverProgress;
+import tn.esprit.new_timetableservice.solver.SolverResult;
+import tn.esprit.new_timetableservice.solver.TimetableSolver;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TimetableServiceTest {
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger connectionsTaken = new AtomicInteger();
+    private AnnotationConfigApplicationContext context;
+    private int openDuringSolve = -1;
+    private Map<Object, Object> resourcesDuringSolve;
+
+    // Repositories are mocks; the transaction manager runs over a data source that counts open connections
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            doAnswer(close -> openConnections.decrementAndGet()).when(connection).close();
+            connectionsTaken.incrementAndGet();
+            openConnections.incrementAndGet();
+            return connection;
+        });
+
+        ProgramRepository programRepository = mock(ProgramRepository.class);
+        Program program = new Program();
+        program.setId(1L);
+        program.setName("Program 1");
+        when(programRepository.findAllById(any())).thenReturn(List.of(program));
+        SchoolRepository schoolRepository = mock(SchoolRepository.class);
+        when(schoolRepository.existsById(1L)).thenReturn(true);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("programRepository", programRepository);
+        context.getBeanFactory().registerSingleton("schoolRepository", schoolRepository);
+        context.getBeanFactory().registerSingleton("programSubjectRepository", mock(ProgramSubjectRepository.class));
+        context.getBeanFactory().registerSingleton("classRepository", mock(ClassRepository.class));
+        context.getBeanFactory().registerSingleton("teacherRepository", mock(TeacherRepository.class));
+        context.getBeanFactory().registerSingleton("classroomRepository", mock(ClassroomRepository.class));
+        context.getBeanFactory().registerSingleton("timeSlotRepository", mock(TimeSlotRepository.class));
+        context.getBeanFactory().registerSingleton("teacherAvailabilityRepository", mock(TeacherAvailabilityRepository.class));
+        context.getBeanFactory().registerSingleton("timetableRepository", mock(TimetableRepository.class));
+        context.getBeanFactory().registerSingleton("scheduleRepository", mock(ScheduleRepository.class));
+        context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        context.getBeanFactory().registerSingleton("transactionManager", new DataSourceTransactionManager(dataSource));
+        context.getBeanFactory().registerSingleton("genetic", (TimetableSolver) this::solveWithoutConnection);
+        context.register(TimetableMetrics.class, TimetableService.class);
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    // Records what the solver thread holds, then cancels so the run ends before the save phase
+    private SolverResult solveWithoutConnection(ProblemSnapshot snapshot, SolverBudget budget, SolverProgress progress) {
+        openDuringSolve = openConnections.get();
+        resourcesDuringSolve = TransactionSynchronizationManager.getResourceMap();
+        progress.cancel();
+        return new SolverResult("genetic", new GeneticTimetable(snapshot), SolverProgress.StopReason.CANCELLED, 0, 0);
+    }
+
+    @Test
+    void noConnectionIsHeldWhileSolving() {
+        GenerateTimetableRequestDTO request = new GenerateTimetableRequestDTO();
+        request.setSchoolId(1L);
+        request.setProgramClassCounts(Map.of(1L, 2));
+
+        assertNull(context.getBean(TimetableService.class).generateTimetable(request, new SolverProgress()));
+
+        assertEquals(1, connectionsTaken.get(), "the load transaction takes one connection");
+        assertEquals(0, openDuringSolve);
+        assertTrue(resourcesDuringSolve.isEmpty(), "no transaction resource is bound during the solve: " + resourcesDuringSolve);
+        assertEquals(0, openConnections.get());
+    }
+}
@@ -0,0 +1,51 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DSaturConstructorTest {
+
+    @Test
+    void placesEveryLessonWithoutViolationsWhenThereIsSlack() {
+        // Less than half of every resource's capacity is needed
+        ProblemSnapshot snapshot = TestSchools.small(0.4);
+        DSaturConstructor constructor = new DSaturConstructor(snapshot);
+        GeneticTimetable timetable = new GeneticTimetable(snapshot);
+        for (long seed = 0; seed < 20; seed++) {
+            timetable.clear();
+            constructor.construct(timetable, new SplittableRandom(seed));
+            assertEquals(snapshot.lessonCount(), timetable.assignedCount());
+            assertEquals(0, timetable.hardViolations());
+            assertTrue(FitnessCheck.calculateScore(timetable, snapshot).isFeasible());
+        }
+    }
+
+    @Test
+    void completeKeepsPlacedLessonsAndFillsTheRest() {
+        ProblemSnapshot snapshot = TestSchools.small(0.4);
+        DSaturConstructor constructor = new DSaturConstructor(snapshot);
+        GeneticTimetable reference = new GeneticTimetable(snapshot);
+        constructor.construct(reference, new SplittableRandom(1));
+        GeneticTimetable timetable = new GeneticTimetable(snapshot);
+        for (long seed = 0; seed < 20; seed++) {
+            timetable.copyFrom(reference);
+            for (int l = (int) seed % 3; l < snapshot.lessonCount(); l += 3) {
+                timetable.unassign(l);
+            }
+            constructor.complete(timetable, new SplittableRandom(seed));
+            for (int l = 0; l < snapshot.lessonCount(); l++) {
+                if (l % 3 != seed % 3) {
+                    assertEquals(reference.slot(l), timetable.slot(l));
+                    assertEquals(reference.teacher(l), timetable.teacher(l));
+                    assertEquals(reference.room(l), timetable.room(l));
+                }
+            }
+            assertEquals(snapshot.lessonCount(), timetable.assignedCount());
+            assertEquals(0, timetable.hardViolations());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FitnessStateTest {
+
+    @Test
+    void incrementalScoreMatchesFullRecompute() {
+        SplittableRandom random = new SplittableRandom(3);
+        ProblemSnapshot base = TestSchools.small(0.8);
+        // A reference for the change penalty and a few fixed lessons, both placed anywhere, clashes included
+        ProblemSnapshot snapshot = base.withReference(randomAssignment(base, 0.7, random), 50)
+                .withFixed(randomAssignment(base, 0.2, random));
+        GeneticTimetable timetable = new GeneticTimetable(snapshot);
+        GeneticTimetable donor = new GeneticTimetable(snapshot);
+        assertMatches(timetable, snapshot);
+
+        for (int step = 0; step < 20_000; step++) {
+            int lesson = random.nextInt(snapshot.lessonCount());
+            int op = random.nextInt(100);
+            if (op < 50) {
+                timetable.assign(lesson, random.nextInt(snapshot.slotCount()),
+                        random.nextInt(snapshot.teacherCount()), random.nextInt(snapshot.roomCount()));
+            } else if (op < 70) {
+                timetable.unassign(lesson);
+            } else if (op < 85) {
+                donor.assign(lesson, random.nextInt(snapshot.slotCount()),
+                        random.nextInt(snapshot.teacherCount()), random.nextInt(snapshot.roomCount()));
+                assertMatches(donor, snapshot);
+            } else if (op < 97) {
+                int from = random.nextInt(snapshot.lessonCount());
+                int to = from + random.nextInt(snapshot.lessonCount() - from + 1);
+                timetable.copyRange(donor, from, to);
+            } else if (op < 99) {
+                timetable.copyFrom(donor);
+            } else {
+                timetable.clear();
+            }
+            assertMatches(timetable, snapshot);
+        }
+    }
+
+    private static void assertMatches(GeneticTimetable timetable, ProblemSnapshot snapshot) {
+        HardSoftScore full = FitnessCheck.calculateScore(timetable, snapshot);
+        assertEquals(-full.hard(), timetable.hardViolations());
+        assertEquals(full.soft(), timetable.softScore());
+        assertEquals(FitnessCheck.teacherLoadVariance(timetable, snapshot), timetable.teacherLoadVariance());
+        assertEquals(full, timetable.score());
+    }
+
+    // Slot, teacher and room per lesson, with the given share of lessons placed at random
+    private static int[][] randomAssignment(ProblemSnapshot snapshot, double placed, SplittableRandom random) {
+        int[][] assignment = new int[3][snapshot.lessonCount()];
+        for (int l = 0; l < snapshot.lessonCount(); l++) {
+            boolean place = random.nextDouble() < placed;
+            assignment[0][l] = place ? random.nextInt(snapshot.slotCount()) : GeneticTimetable.UNASSIGNED;
+            assignment[1][l] = place ? random.nextInt(snapshot.teacherCount()) : GeneticTimetable.UNASSIGNED;
+            assignment[2][l] = place ? random.nextInt(snapshot.roomCount()) : GeneticTimetable.UNASSIGNED;
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,98 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneticSolverTest {
+
+    @Test
+    void seededRunDoesNotDependOnThreadCount() {
+        assertSameOnOneAndFourThreads(properties(1));
+    }
+
+    @Test
+    void seededIslandRunDoesNotDependOnThreadCount() {
+        assertSameOnOneAndFourThreads(properties(3));
+    }
+
+    // The offspring are where the scoring work happens, so they make up most of every generation
+    @Test
+    void evaluationStepTimesTheScoringOfTheOffspring() {
+        Map<SolverProgress.Step, long[]> timings = new EnumMap<>(SolverProgress.Step.class);
+        SolverProgress progress = new SolverProgress();
+        progress.setListener(new SolverProgress.Listener() {
+            @Override
+            public synchronized void stepTimed(SolverProgress.Step step, long nanos) {
+                long[] timing = timings.computeIfAbsent(step, k -> new long[2]);
+                timing[0]++;
+                timing[1] += nanos;
+            }
+        });
+        Map<String, Object> properties = properties(1);
+        properties.put("timetable.parallel.enabled", "false");
+        properties.put("timetable.stagnation.generations", "0");
+        properties.put("timetable.polish.enabled", "false");
+        try (AnnotationConfigApplicationContext context = SolverContexts.create(1, properties)) {
+            context.getBean(GeneticSolver.NAME, TimetableSolver.class)
+                    .solve(TestSchools.small(1.0), new SolverBudget(60_000, 42L), progress);
+        }
+
+        long[] evaluation = timings.get(SolverProgress.Step.EVALUATION);
+        long[] generation = timings.get(SolverProgress.Step.GENERATION);
+        assertEquals(generation[0], evaluation[0]);
+        assertTrue(evaluation[1] > generation[1] / 2,
+                "evaluation " + evaluation[1] + " ns of " + generation[1] + " ns in generations");
+    }
+
+    private static void assertSameOnOneAndFourThreads(Map<String, Object> properties) {
+        ProblemSnapshot snapshot = TestSchools.small(1.0);
+        SolverResult sequential = solve(1, properties, snapshot);
+        SolverResult parallel = solve(4, properties, snapshot);
+        assertEquals(sequential.getScore(), parallel.getScore());
+        assertEquals(sequential.getIterations(), parallel.getIterations());
+        assertArrayEquals(genes(sequential.getSolution()), genes(parallel.getSolution()));
+    }
+
+    // Generation and move limits well inside the time limit, so only the seed decides the run
+    private static Map<String, Object> properties(int islands) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("timetable.parallel.enabled", "true");
+        properties.put("timetable.population.size", "24");
+        properties.put("timetable.max.generations", "40");
+        properties.put("timetable.mutation.rate", "0.1");
+        // Random initial populations, so the run has to breed, restart and migrate its way forward
+        properties.put("timetable.seeding.fraction", "0");
+        properties.put("timetable.islands.count", String.valueOf(islands));
+        properties.put("timetable.islands.migration.interval", "5");
+        properties.put("timetable.stagnation.generations", "8");
+        properties.put("timetable.stagnation.action", "restart");
+        properties.put("timetable.polish.time.ms", "60000");
+        properties.put("timetable.polish.max.iterations", "2000");
+        return properties;
+    }
+
+    private static SolverResult solve(int parallelism, Map<String, Object> properties, ProblemSnapshot snapshot) {
+        try (AnnotationConfigApplicationContext context = SolverContexts.create(parallelism, properties)) {
+            TimetableSolver solver = context.getBean(GeneticSolver.NAME, TimetableSolver.class);
+            return solver.solve(snapshot, new SolverBudget(60_000, 42L), new SolverProgress());
+        }
+    }
+
+    private static int[] genes(GeneticTimetable timetable) {
+        int[] genes = new int[timetable.size() * 3];
+        for (int l = 0; l < timetable.size(); l++) {
+            genes[3 * l] = timetable.slot(l);
+            genes[3 * l + 1] = timetable.teacher(l);
+            genes[3 * l + 2] = timetable.room(l);
+        }
+        return genes;
+    }
+}
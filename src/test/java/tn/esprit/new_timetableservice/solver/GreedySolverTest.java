@@ -0,0 +1,42 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreedySolverTest {
+
+    // A third of the stored lessons are gone, as after adding hours to a requirement
+    @Test
+    void warmStartKeepsTheReferenceLessons() {
+        ProblemSnapshot problem = TestSchools.small(0.4);
+        GeneticTimetable stored = new GeneticTimetable(problem);
+        new DSaturConstructor(problem).construct(stored, new SplittableRandom(3));
+        int[][] reference = new int[3][problem.lessonCount()];
+        Arrays.fill(reference[0], GeneticTimetable.UNASSIGNED);
+        Arrays.fill(reference[1], GeneticTimetable.UNASSIGNED);
+        Arrays.fill(reference[2], GeneticTimetable.UNASSIGNED);
+        for (int l = 0; l < problem.lessonCount(); l++) {
+            if (l % 3 != 0) {
+                reference[0][l] = stored.slot(l);
+                reference[1][l] = stored.teacher(l);
+                reference[2][l] = stored.room(l);
+            }
+        }
+        ProblemSnapshot snapshot = problem.withReference(reference, 50);
+
+        try (AnnotationConfigApplicationContext context = SolverContexts.create(1, Map.of())) {
+            SolverResult result = context.getBean(GreedySolver.class)
+                    .solve(snapshot, new SolverBudget(2000, 7L), new SolverProgress());
+
+            assertTrue(result.getScore().isFeasible());
+            assertEquals(snapshot.lessonCount(), result.getSolution().assignedCount());
+            assertEquals(0, result.getSolution().changedLessons());
+        }
+    }
+}
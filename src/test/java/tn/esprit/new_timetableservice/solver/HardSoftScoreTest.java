@@ -0,0 +1,66 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HardSoftScoreTest {
+
+    @Test
+    void hardScoreDecidesBeforeSoftScore() {
+        HardSoftScore feasible = new HardSoftScore(0, -1_000_000);
+        HardSoftScore oneViolation = new HardSoftScore(-1, 1_000_000);
+        assertTrue(feasible.compareTo(oneViolation) > 0);
+        assertTrue(oneViolation.compareTo(feasible) < 0);
+        // The weighted view would rank them the other way; it is for display only
+        assertTrue(oneViolation.weighted() > feasible.weighted());
+    }
+
+    @Test
+    void softScoreBreaksTies() {
+        assertTrue(new HardSoftScore(-2, 10.5).compareTo(new HardSoftScore(-2, 10.0)) > 0);
+        assertTrue(new HardSoftScore(-2, -3).compareTo(new HardSoftScore(-2, 4)) < 0);
+        assertEquals(0, new HardSoftScore(-2, 4).compareTo(new HardSoftScore(-2, 4)));
+    }
+
+    @Test
+    void sortsLexicographically() {
+        List<HardSoftScore> scores = new ArrayList<>(List.of(
+                new HardSoftScore(-1, 500), new HardSoftScore(0, -20), new HardSoftScore(-3, 900),
+                new HardSoftScore(0, 10), new HardSoftScore(-1, 100)));
+        Collections.sort(scores);
+        assertEquals(List.of(
+                new HardSoftScore(-3, 900), new HardSoftScore(-1, 100), new HardSoftScore(-1, 500),
+                new HardSoftScore(0, -20), new HardSoftScore(0, 10)), scores);
+    }
+
+    @Test
+    void arrayComparisonAgreesWithCompareTo() {
+        int[] hards = {0, -1, -5};
+        double[] softs = {-7.5, 0, 3.25, 1e6};
+        for (int h1 : hards) {
+            for (double s1 : softs) {
+                for (int h2 : hards) {
+                    for (double s2 : softs) {
+                        assertEquals(Integer.signum(new HardSoftScore(h1, s1).compareTo(new HardSoftScore(h2, s2))),
+                                Integer.signum(HardSoftScore.compare(h1, s1, h2, s2)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void equalityFollowsBothLevels() {
+        assertEquals(new HardSoftScore(-1, 2.5), new HardSoftScore(-1, 2.5));
+        assertEquals(new HardSoftScore(-1, 2.5).hashCode(), new HardSoftScore(-1, 2.5).hashCode());
+        assertNotEquals(new HardSoftScore(-1, 2.5), new HardSoftScore(0, 2.5));
+        assertNotEquals(new HardSoftScore(-1, 2.5), new HardSoftScore(-1, 2.0));
+        assertTrue(new HardSoftScore(0, -5).isFeasible());
+        assertFalse(new HardSoftScore(-1, 5).isFeasible());
+    }
+}
@@ -0,0 +1,69 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioSolverTest {
+
+    // More members than member threads, and GA members with parallel work of their own on a one-thread solver pool
+    @Test
+    void membersShareTheDeadlineOnASingleThreadPool() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("timetable.portfolio.members", "genetic,genetic,genetic,genetic,annealing");
+        properties.put("timetable.portfolio.threads", "2");
+        properties.put("timetable.parallel.enabled", "true");
+        properties.put("timetable.population.size", "60");
+        properties.put("timetable.max.generations", "1000000");
+        properties.put("timetable.stagnation.generations", "0");
+        properties.put("timetable.annealing.max.iterations", "2000000000");
+        ProblemSnapshot snapshot = unsolvable();
+        List<Integer> generations = Collections.synchronizedList(new ArrayList<>());
+        SolverProgress progress = new SolverProgress();
+        progress.setListener(new SolverProgress.Listener() {
+            @Override
+            public void generationRecorded(SolverProgress.GenerationStats stats) {
+                generations.add(stats.getGeneration());
+            }
+        });
+
+        long timeLimit = 1500;
+        long elapsed;
+        try (AnnotationConfigApplicationContext context = SolverContexts.create(1, properties)) {
+            TimetableSolver portfolio = context.getBean(PortfolioSolver.NAME, TimetableSolver.class);
+            long start = System.currentTimeMillis();
+            portfolio.solve(snapshot, new SolverBudget(timeLimit, 5L), progress);
+            elapsed = System.currentTimeMillis() - start;
+        }
+
+        // Only the final repairs may run past the deadline
+        assertTrue(elapsed < timeLimit + 1000, "Portfolio took " + elapsed + " ms for a " + timeLimit + " ms limit");
+        assertTrue(generations.size() > 1);
+        for (int i = 1; i < generations.size(); i++) {
+            assertTrue(generations.get(i) > generations.get(i - 1), "Forwarded generations go backwards: " + generations);
+        }
+    }
+
+    // Two lessons of one class fixed in the same slot, so no member ever becomes feasible and ends the race early
+    private static ProblemSnapshot unsolvable() {
+        ProblemSnapshot snapshot = TestSchools.small(1.0);
+        int[][] fixed = new int[3][snapshot.lessonCount()];
+        for (int[] row : fixed) {
+            Arrays.fill(row, GeneticTimetable.UNASSIGNED);
+        }
+        for (int l = 0; l < 2; l++) {
+            fixed[0][l] = 0;
+            fixed[1][l] = snapshot.eligibility().teachers(snapshot.classProgram(0), snapshot.lessonSubject(l))[0];
+            fixed[2][l] = snapshot.eligibility().rooms(snapshot.lessonSubject(l))[l];
+        }
+        return snapshot.withFixed(fixed);
+    }
+}
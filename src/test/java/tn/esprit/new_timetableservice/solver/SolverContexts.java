@@ -0,0 +1,27 @@
+package tn.esprit.new_timetableservice.solver;
+
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import tn.esprit.new_timetableservice.config.SolverConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Solver beans wired as in the service, on a solver pool of the given parallelism, without the web and JPA layers
+final class SolverContexts {
+
+    private SolverContexts() {
+    }
+
+    static AnnotationConfigApplicationContext create(int parallelism, Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(new ApplicationConversionService());
+        Map<String, Object> source = new HashMap<>(properties);
+        source.put("timetable.parallel.threads", String.valueOf(parallelism));
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", source));
+        context.register(SolverConfig.class, GeneticSolver.class, AnnealingSolver.class, GreedySolver.class, PortfolioSolver.class);
+        context.refresh();
+        return context;
+    }
+}
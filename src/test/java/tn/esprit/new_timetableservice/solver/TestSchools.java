@@ -0,0 +1,25 @@
+package tn.esprit.new_timetableservice.solver;
+
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolGenerator;
+import tn.esprit.new_timetableservice.synthetic.SyntheticSchoolSpec;
+
+// Small generated schools for solver tests; the same arguments always give the same snapshot
+final class TestSchools {
+
+    private TestSchools() {
+    }
+
+    // 6 classes in 3 programs of 5 subjects, 5 days of 4 slots
+    static ProblemSnapshot small(double tightness) {
+        SyntheticSchoolSpec spec = new SyntheticSchoolSpec();
+        spec.setName("Test");
+        spec.setPrograms(3);
+        spec.setClassesPerProgram(2);
+        spec.setSubjectsPerProgram(5);
+        spec.setDays(5);
+        spec.setSlotsPerDay(4);
+        spec.setTightness(tightness);
+        spec.setSeed(11);
+        return SyntheticSchoolGenerator.generate(spec).toSnapshot();
+    }
+}
@@ -0,0 +1,40 @@
+package tn.esprit.new_timetableservice.synthetic;
+
+import org.junit.jupiter.api.Test;
+import tn.esprit.new_timetableservice.entities.ProgramSubject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticSchoolGeneratorTest {
+
+    @Test
+    void rejectsMoreSubjectsThanSlots() {
+        SyntheticSchoolSpec spec = new SyntheticSchoolSpec();
+        spec.setDays(2);
+        spec.setSlotsPerDay(3);
+        spec.setSubjectsPerProgram(7);
+        spec.setTightness(0.5);
+        assertThrows(IllegalArgumentException.class, () -> SyntheticSchoolGenerator.generate(spec));
+    }
+
+    @Test
+    void weeklyHoursFitTheWeek() {
+        SyntheticSchoolSpec spec = new SyntheticSchoolSpec();
+        spec.setDays(2);
+        spec.setSlotsPerDay(3);
+        spec.setSubjectsPerProgram(6);
+        spec.setTightness(0.5);
+        spec.setName("test");
+        SyntheticSchool school = SyntheticSchoolGenerator.generate(spec);
+
+        Map<Long, Integer> hoursByProgram = new HashMap<>();
+        for (ProgramSubject requirement : school.getProgramSubjects()) {
+            hoursByProgram.merge(requirement.getProgram().getId(), requirement.getHoursPerWeek(), Integer::sum);
+        }
+        assertEquals(spec.getPrograms(), hoursByProgram.size());
+        hoursByProgram.values().forEach(hours -> assertTrue(hours <= 6, "program needs " + hours + " of 6 slots"));
+    }
+}